@@ -0,0 +1,23 @@
+package com.sonifoy.auth.benchmark;
+
+/**
+ * Synthetic JSON bodies of an exact byte size, shaped like the API responses
+ * that go through the encryption filter.
+ */
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    static String json(int size) {
+        String prefix = "{\"id\":42,\"email\":\"user42@example.com\",\"data\":\"";
+        String suffix = "\"}";
+        int fill = Math.max(0, size - prefix.length() - suffix.length());
+        StringBuilder sb = new StringBuilder(size);
+        sb.append(prefix);
+        for (int i = 0; i < fill; i++) {
+            sb.append((char) ('a' + (i % 26)));
+        }
+        return sb.append(suffix).toString();
+    }
+}
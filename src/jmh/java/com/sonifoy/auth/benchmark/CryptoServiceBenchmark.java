@@ -0,0 +1,54 @@
+package com.sonifoy.auth.benchmark;
+
+import com.sonifoy.auth.infrastructure.security.crypto.CryptoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CryptoServiceBenchmark {
+
+    @Param({"256", "4096", "65536", "1048576"})
+    private int payloadSize;
+
+    private CryptoService cryptoService;
+    private byte[] sessionKey;
+    private String plainText;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        cryptoService = new CryptoService(new SimpleMeterRegistry());
+        sessionKey = new byte[32];
+        new SecureRandom().nextBytes(sessionKey);
+        plainText = BenchmarkPayloads.json(payloadSize);
+        encrypted = cryptoService.encrypt(plainText, sessionKey);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return cryptoService.encrypt(plainText, sessionKey);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return cryptoService.decrypt(encrypted, sessionKey);
+    }
+}
@@ -0,0 +1,65 @@
+package com.sonifoy.auth.benchmark;
+
+import com.sonifoy.auth.infrastructure.security.JwtKeyRing;
+import com.sonifoy.auth.infrastructure.security.JwtService;
+import com.sonifoy.auth.infrastructure.security.JwtSigningKey;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtServiceBenchmark {
+
+    private static final String USERNAME = "user42@example.com";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        JwtKeyRing keyRing = new JwtKeyRing();
+        keyRing.update(List.of(new JwtSigningKey("benchmark", keyPair.getPublic(), keyPair.getPrivate(),
+                Instant.now())), Duration.ZERO, Instant.now());
+
+        jwtService = new JwtService(keyRing, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secret",
+                "benchmark_secret_key_that_is_long_enough_for_hmac_sha_256");
+        ReflectionTestUtils.setField(jwtService, "expirationTime", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "legacyAcceptUntil", "");
+        jwtService.init();
+        token = jwtService.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+}
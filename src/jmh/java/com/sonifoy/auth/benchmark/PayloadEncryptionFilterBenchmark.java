@@ -0,0 +1,143 @@
+package com.sonifoy.auth.benchmark;
+
+import com.sonifoy.auth.infrastructure.security.PayloadEncryptionFilter;
+import com.sonifoy.auth.infrastructure.security.PayloadRouteClassifier;
+import com.sonifoy.auth.infrastructure.security.PayloadRouteProperties;
+import com.sonifoy.auth.infrastructure.security.SessionKeyStore;
+import com.sonifoy.auth.infrastructure.security.crypto.CryptoService;
+import com.sonifoy.auth.infrastructure.security.crypto.EnvelopeFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full decrypt-request / encrypt-response cycle through
+ * {@link PayloadEncryptionFilter}, driven with mock exchanges and an in-memory
+ * session key store. Runs each payload size in both wire formats; the
+ * {@code requestBytes}/{@code responseBytes} secondary results give the bytes
+ * on the wire per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PayloadEncryptionFilterBenchmark {
+
+    private static final String SESSION_ID = "benchmark-session";
+
+    @Param({"256", "4096", "65536", "1048576"})
+    private int payloadSize;
+
+    @Param({"TEXT", "BINARY"})
+    private EnvelopeFormat format;
+
+    private PayloadEncryptionFilter filter;
+    private byte[] encryptedRequest;
+    private byte[] responseJson;
+    private WebFilterChain chain;
+
+    @Setup
+    public void setUp() {
+        CryptoService cryptoService = new CryptoService(new SimpleMeterRegistry());
+        byte[] sessionKey = new byte[32];
+        new SecureRandom().nextBytes(sessionKey);
+
+        filter = new PayloadEncryptionFilter(cryptoService, new InMemorySessionKeyStore(SESSION_ID, sessionKey),
+                new PayloadRouteClassifier(new PayloadRouteProperties(), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+        String json = BenchmarkPayloads.json(payloadSize);
+        responseJson = json.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+        cryptoService.encrypt(ByteBuffer.wrap(responseJson), sessionKey, format, envelope);
+        encryptedRequest = envelope.toByteArray();
+
+        chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+                .flatMap(requestBody -> {
+                    DataBufferUtils.release(requestBody);
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.setStatusCode(HttpStatus.OK);
+                    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    return response.writeWith(Mono.just(response.bufferFactory().wrap(responseJson)));
+                });
+    }
+
+    @Benchmark
+    public byte[] roundTrip(WireBytes wireBytes) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/api/v1/users/me")
+                .header("X-Session-ID", SESSION_ID)
+                .header(HttpHeaders.ACCEPT, format.getMediaType().toString())
+                .contentType(format.getMediaType())
+                .body(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(encryptedRequest))));
+        filter.filter(exchange, chain).block();
+        byte[] response = DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return bytes;
+                })
+                .block();
+        wireBytes.requestBytes = encryptedRequest.length;
+        wireBytes.responseBytes = response.length;
+        return response;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireBytes {
+        public long requestBytes;
+        public long responseBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requestBytes = 0;
+            responseBytes = 0;
+        }
+    }
+
+    private record InMemorySessionKeyStore(String sessionId, byte[] key) implements SessionKeyStore {
+        @Override
+        public Mono<Void> saveKey(String id, byte[] value) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<byte[]> getKey(String id) {
+            return sessionId.equals(id) ? Mono.just(key) : Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> removeKey(String id) {
+            return Mono.empty();
+        }
+    }
+}
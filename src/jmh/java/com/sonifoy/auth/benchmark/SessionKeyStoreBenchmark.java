@@ -0,0 +1,91 @@
+package com.sonifoy.auth.benchmark;
+
+import com.sonifoy.auth.infrastructure.redis.RedisConfig;
+import com.sonifoy.auth.infrastructure.security.CachingSessionKeyStore;
+import com.sonifoy.auth.infrastructure.security.RedisSessionKeyStore;
+import com.sonifoy.auth.infrastructure.security.SessionKeyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of the per-request session key lookup with and without
+ * the near-cache. Needs a Redis reachable at {@code -Dbenchmark.redis.host}
+ * (default localhost:6379); compare the p0.99 rows of the sample-time output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class SessionKeyStoreBenchmark {
+
+    private static final int SESSIONS = 1_000;
+
+    @Param({"false", "true"})
+    private boolean nearCache;
+
+    private LettuceConnectionFactory connectionFactory;
+    private SessionKeyStore store;
+    private String[] sessionIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisConfig redisConfig = new RedisConfig();
+        ReactiveRedisTemplate<String, String> template = redisConfig.reactiveRedisTemplate(connectionFactory);
+        RedisSessionKeyStore redisStore = new RedisSessionKeyStore(
+                redisConfig.binaryRedisTemplate(connectionFactory), template, new SimpleMeterRegistry());
+        store = nearCache
+                ? new CachingSessionKeyStore(redisStore, template, new SimpleMeterRegistry(), SESSIONS * 2L,
+                        Duration.ofMinutes(10))
+                : redisStore;
+
+        SecureRandom random = new SecureRandom();
+        sessionIds = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            byte[] key = new byte[32];
+            random.nextBytes(key);
+            sessionIds[i] = "benchmark-" + i;
+            store.saveKey(sessionIds[i], key).block();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (String sessionId : sessionIds) {
+            store.removeKey(sessionId).block();
+        }
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public byte[] getKey() {
+        String sessionId = sessionIds[next++ % SESSIONS];
+        return store.getKey(sessionId).block();
+    }
+}
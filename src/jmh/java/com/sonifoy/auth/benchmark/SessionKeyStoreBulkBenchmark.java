@@ -0,0 +1,143 @@
+package com.sonifoy.auth.benchmark;
+
+import com.sonifoy.auth.infrastructure.redis.RedisConfig;
+import com.sonifoy.auth.infrastructure.security.RedisSessionKeyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Flux;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk session key operations against a local Redis
+ * ({@code -Dbenchmark.redis.host}, database 15), compared with issuing the
+ * single-key commands one round trip at a time. Setup also prints the Redis
+ * memory used per session for the legacy Base64 layout and the binary one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SessionKeyStoreBulkBenchmark {
+
+    private static final int MEMORY_SAMPLE = 10_000;
+
+    @Param({"10", "100", "1000"})
+    private int batchSize;
+
+    private LettuceConnectionFactory connectionFactory;
+    private ReactiveRedisTemplate<String, String> stringTemplate;
+    private RedisSessionKeyStore store;
+    private Map<String, byte[]> keys;
+    private List<String> sessionIds;
+
+    @Setup
+    public void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379));
+        configuration.setDatabase(15);
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisConfig redisConfig = new RedisConfig();
+        stringTemplate = redisConfig.reactiveRedisTemplate(connectionFactory);
+        store = new RedisSessionKeyStore(redisConfig.binaryRedisTemplate(connectionFactory), stringTemplate,
+                new SimpleMeterRegistry());
+
+        keys = randomKeys(batchSize);
+        sessionIds = new ArrayList<>(keys.keySet());
+        store.saveKeys(keys).block();
+
+        reportMemoryPerSession();
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.removeKeys(sessionIds).block();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Map<String, byte[]> getKeysBulk() {
+        return store.getKeys(sessionIds).block();
+    }
+
+    @Benchmark
+    public List<byte[]> getKeysOneByOne() {
+        return Flux.fromIterable(sessionIds).concatMap(store::getKey).collectList().block();
+    }
+
+    @Benchmark
+    public void saveKeysBulk() {
+        store.saveKeys(keys).block();
+    }
+
+    @Benchmark
+    public void saveKeysOneByOne() {
+        Flux.fromIterable(keys.entrySet()).concatMap(e -> store.saveKey(e.getKey(), e.getValue())).blockLast();
+    }
+
+    private void reportMemoryPerSession() {
+        Map<String, byte[]> sample = randomKeys(MEMORY_SAMPLE);
+
+        long before = usedMemory();
+        Flux.fromIterable(sample.entrySet())
+                .flatMap(e -> stringTemplate.opsForValue().set("session:key:" + e.getKey(),
+                        Base64.getEncoder().encodeToString(e.getValue()), Duration.ofHours(24)))
+                .blockLast();
+        long legacy = usedMemory() - before;
+        stringTemplate.delete(sample.keySet().stream().map(id -> "session:key:" + id).toArray(String[]::new))
+                .block();
+
+        before = usedMemory();
+        store.saveKeys(sample).block();
+        long binary = usedMemory() - before;
+        store.removeKeys(sample.keySet()).block();
+
+        System.out.printf("Redis memory per session: legacy=%d B, binary=%d B%n",
+                legacy / MEMORY_SAMPLE, binary / MEMORY_SAMPLE);
+    }
+
+    private long usedMemory() {
+        Properties info = connectionFactory.getReactiveConnection().serverCommands().info("memory").block();
+        return Long.parseLong(info.getProperty("used_memory").trim());
+    }
+
+    private static Map<String, byte[]> randomKeys(int count) {
+        SecureRandom random = new SecureRandom();
+        Map<String, byte[]> result = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[32];
+            random.nextBytes(key);
+            result.put(UUID.randomUUID().toString(), key);
+        }
+        return result;
+    }
+}
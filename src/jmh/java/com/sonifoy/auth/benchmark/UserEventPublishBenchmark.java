@@ -0,0 +1,135 @@
+package com.sonifoy.auth.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sonifoy.auth.application.dto.UserRegisteredEvent;
+import com.sonifoy.auth.infrastructure.adapter.out.messaging.KafkaProducerService;
+import com.sonifoy.auth.infrastructure.adapter.out.messaging.UserEventCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.internals.ProducerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second through {@link KafkaProducerService} against an
+ * auto-completing {@link MockProducer}, so the score covers the reactor-kafka
+ * pipeline and serialization but not the network. The encode benchmarks compare
+ * the binary codec with the previous JSON payload; their {@code bytes} secondary
+ * result is the encoded size per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserEventPublishBenchmark {
+
+    private static final int BATCH = 500;
+
+    @Param({"1", "256", "1024"})
+    private int maxInFlight;
+
+    private List<UserRegisteredEvent> events;
+    private UserRegisteredEvent event;
+    private MockProducer<String, UserRegisteredEvent> producer;
+    private KafkaSender<String, UserRegisteredEvent> sender;
+    private KafkaProducerService producerService;
+    private UserEventCodec codec;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        codec = new UserEventCodec();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        events = new ArrayList<>(BATCH);
+        Instant now = Instant.now();
+        for (int i = 0; i < BATCH; i++) {
+            events.add(UserRegisteredEvent.builder()
+                    .userId(String.valueOf(1_000_000L + i))
+                    .email("listener" + i + "@sonifoy.com")
+                    .name("Listener " + i)
+                    .profileType("LISTENER")
+                    .timestamp(now.plusMillis(i))
+                    .build());
+        }
+        event = events.get(0);
+
+        producer = new MockProducer<>(true, new StringSerializer(), codec);
+        SenderOptions<String, UserRegisteredEvent> options = SenderOptions.<String, UserRegisteredEvent>create()
+                .maxInFlight(maxInFlight);
+        sender = KafkaSender.create(new ProducerFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Producer<K, V> createProducer(SenderOptions<K, V> senderOptions) {
+                return (Producer<K, V>) producer;
+            }
+        }, options);
+        producerService = new KafkaProducerService(sender, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sender.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearHistory() {
+        producer.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publish() {
+        producerService.sendUserRegisteredEvents(events).block();
+    }
+
+    @Benchmark
+    public byte[] encodeBinary(EncodedBytes encodedBytes) {
+        byte[] encoded = codec.serialize("user-events", event);
+        encodedBytes.bytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public byte[] encodeJson(EncodedBytes encodedBytes) throws Exception {
+        byte[] encoded = objectMapper.writeValueAsBytes(event);
+        encodedBytes.bytes = encoded.length;
+        return encoded;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedBytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
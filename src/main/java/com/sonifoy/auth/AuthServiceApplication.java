@@ -1,10 +1,15 @@
 package com.sonifoy.auth;
 
+import com.sonifoy.auth.infrastructure.config.AuthRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {
         org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration.class })
+@EnableScheduling
+@ImportRuntimeHints(AuthRuntimeHints.class)
 public class AuthServiceApplication {
 
     public static void main(String[] args) {
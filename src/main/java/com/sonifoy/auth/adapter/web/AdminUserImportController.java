@@ -0,0 +1,51 @@
+package com.sonifoy.auth.adapter.web;
+
+import com.sonifoy.auth.application.dto.UserImportReport;
+import com.sonifoy.auth.application.service.UserImportService;
+import com.sonifoy.auth.infrastructure.persistence.UserCredentialsCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+public class AdminUserImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final UserImportService userImportService;
+    private final UserCredentialsCache userCredentialsCache;
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<UserImportReport>> importNdjson(Mono<Principal> principal,
+            @RequestBody Flux<DataBuffer> body) {
+        return requireAdmin(principal)
+                .then(userImportService.importUsers(body, UserImportService.Format.NDJSON))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public Mono<ResponseEntity<UserImportReport>> importCsv(Mono<Principal> principal,
+            @RequestBody Flux<DataBuffer> body) {
+        return requireAdmin(principal)
+                .then(userImportService.importUsers(body, UserImportService.Format.CSV))
+                .map(ResponseEntity::ok);
+    }
+
+    private Mono<Void> requireAdmin(Mono<Principal> principal) {
+        return principal
+                .flatMap(p -> userCredentialsCache.get(p.getName()))
+                .filter(credentials -> credentials.roles() != null && credentials.roles().contains("ADMIN"))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin role required")))
+                .then();
+    }
+}
@@ -0,0 +1,66 @@
+package com.sonifoy.auth.adapter.web;
+
+import com.sonifoy.auth.infrastructure.security.JwtKeyRing;
+import com.sonifoy.auth.infrastructure.security.JwtSigningKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the JWT verification keys so gateways and resource servers can
+ * validate access tokens locally. {@code max-age} must stay below
+ * {@code auth.jwt.publish-delay} so caches pick up a new key before it signs.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${auth.jwt.jwks-max-age:5m}")
+    private Duration maxAge;
+
+    @GetMapping("/.well-known/jwks.json")
+    public Mono<ResponseEntity<Map<String, Object>>> jwks() {
+        List<Map<String, Object>> keys = keyRing.keys().stream()
+                .map(JwksController::toJwk)
+                .toList();
+        return Mono.just(ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(Map.of("keys", keys)));
+    }
+
+    private static Map<String, Object> toJwk(JwtSigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.publicKey();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("kid", key.kid());
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    private static String coordinate(BigInteger value) {
+        // Unsigned, left-padded to the 32-byte P-256 field size
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
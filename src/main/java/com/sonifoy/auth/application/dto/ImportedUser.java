@@ -0,0 +1,11 @@
+package com.sonifoy.auth.application.dto;
+
+import java.util.Set;
+
+/**
+ * One row of a bulk user import. Exactly one of {@code password} (plain, hashed
+ * on import) and {@code passwordHash} (already BCrypt-encoded) is expected.
+ */
+public record ImportedUser(String email, String name, String password, String passwordHash, String profileType,
+        Boolean verified, Set<String> roles) {
+}
@@ -0,0 +1,11 @@
+package com.sonifoy.auth.application.dto;
+
+/**
+ * Outcome of a bulk user import: rows read, rows inserted, rows skipped because
+ * the email already existed, and rows rejected as malformed. {@code throttled}
+ * counts hashing attempts that found the pool saturated and were retried; those
+ * rows are never rejected for it.
+ */
+public record UserImportReport(long received, long inserted, long duplicates, long rejected, long throttled,
+        long elapsedMillis, long rowsPerSecond) {
+}
@@ -3,43 +3,102 @@ package com.sonifoy.auth.application.service;
 import com.sonifoy.auth.adapter.web.dto.AuthResponse;
 import com.sonifoy.auth.domain.model.RefreshToken;
 import com.sonifoy.auth.domain.model.User;
+import com.sonifoy.auth.domain.model.UserCredentials;
+import com.sonifoy.auth.infrastructure.config.OperationTimer;
+import com.sonifoy.auth.infrastructure.config.StartupTimeline;
+import com.sonifoy.auth.infrastructure.persistence.EmailBloomFilter;
 import com.sonifoy.auth.infrastructure.persistence.RefreshTokenRepository;
+import com.sonifoy.auth.infrastructure.persistence.UserCredentialsCache;
 import com.sonifoy.auth.infrastructure.persistence.UserRepository;
 import com.sonifoy.auth.infrastructure.security.JwtService;
-import com.sonifoy.auth.infrastructure.security.RedisSessionKeyStore;
-import com.sonifoy.auth.infrastructure.adapter.out.messaging.KafkaProducerService;
+import com.sonifoy.auth.infrastructure.security.PasswordHashingService;
+import com.sonifoy.auth.infrastructure.security.SessionKeyStore;
+import com.sonifoy.auth.infrastructure.security.TokenDigests;
+import com.sonifoy.auth.infrastructure.adapter.out.messaging.UserEventOutbox;
 import com.sonifoy.auth.application.dto.UserRegisteredEvent;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Registration, login and token lifecycle. Every public operation is timed as
+ * {@code auth.operation} (tags {@code operation}, {@code outcome}); the
+ * dependencies it calls record their own timers, so a slow percentile here can
+ * be traced to BCrypt, JWT signing, Redis or the database.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
-    private final RedisSessionKeyStore redisSessionKeyStore;
-    private final KafkaProducerService kafkaProducerService;
+    private final SessionKeyStore sessionKeyStore;
+    private final UserEventOutbox userEventOutbox;
+    private final TransactionalOperator transactionalOperator;
+    private final EmailBloomFilter emailBloomFilter;
+    private final UserCredentialsCache userCredentialsCache;
+    private final StartupTimeline startupTimeline;
+    private final OperationTimer registerTimer;
+    private final OperationTimer verifyEmailTimer;
+    private final OperationTimer resendVerificationTimer;
+    private final OperationTimer loginTimer;
+    private final OperationTimer logoutTimer;
+    private final OperationTimer refreshTokenTimer;
 
     private static final SecureRandom secureRandom = new SecureRandom();
 
+    public AuthService(UserRepository userRepository, RefreshTokenRepository refreshTokenRepository,
+            PasswordHashingService passwordHashingService, JwtService jwtService, SessionKeyStore sessionKeyStore,
+            UserEventOutbox userEventOutbox, TransactionalOperator transactionalOperator,
+            EmailBloomFilter emailBloomFilter, UserCredentialsCache userCredentialsCache,
+            StartupTimeline startupTimeline, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtService = jwtService;
+        this.sessionKeyStore = sessionKeyStore;
+        this.userEventOutbox = userEventOutbox;
+        this.transactionalOperator = transactionalOperator;
+        this.emailBloomFilter = emailBloomFilter;
+        this.userCredentialsCache = userCredentialsCache;
+        this.startupTimeline = startupTimeline;
+        this.registerTimer = operationTimer(meterRegistry, "register");
+        this.verifyEmailTimer = operationTimer(meterRegistry, "verify_email");
+        this.resendVerificationTimer = operationTimer(meterRegistry, "resend_verification");
+        this.loginTimer = operationTimer(meterRegistry, "login");
+        this.logoutTimer = operationTimer(meterRegistry, "logout");
+        this.refreshTokenTimer = operationTimer(meterRegistry, "refresh_token");
+    }
+
     public Mono<User> register(User user) {
-        return userRepository.existsByEmail(user.getEmail())
+        String email = user.getEmail();
+        // A filter miss means the email is free as far as this node knows; a hit is confirmed before
+        // paying for BCrypt. Either way the insert below is the authority.
+        Mono<Boolean> taken = emailBloomFilter.mightContain(email)
+                ? userRepository.existsByEmail(email)
+                        .doOnNext(exists -> {
+                            if (!exists) {
+                                emailBloomFilter.recordFalsePositive();
+                            }
+                        })
+                : Mono.just(false);
+        return taken
                 .flatMap(exists -> {
                     if (exists) {
                         return Mono.error(new RuntimeException("Email already in use"));
                     }
-                    user.setPassword(passwordEncoder.encode(user.getPassword()));
+                    return passwordHashingService.encode(user.getPassword());
+                })
+                .flatMap(encodedPassword -> {
+                    user.setPassword(encodedPassword);
                     if (user.getProfileType() == null) {
                         user.setProfileType("LISTENER"); // Default
                     }
@@ -51,63 +110,74 @@ public class AuthService {
                     user.setVerificationCode(verificationCode);
                     log.info("Generated verification code for {}: {}", user.getEmail(), verificationCode);
 
-                    return userRepository.save(user)
-                            .doOnSuccess(u -> {
-                                log.info("Registered new user: {}", u.getEmail());
-                                // Publish event
-                                kafkaProducerService.sendUserRegisteredEvent(UserRegisteredEvent.builder()
-                                        .userId(String.valueOf(u.getId()))
-                                        .email(u.getEmail())
-                                        .name(u.getName())
-                                        .profileType(u.getProfileType())
-                                        .timestamp(java.time.Instant.now())
-                                        .build());
-                            });
-                });
+                    // User row and its event commit together; OutboxRelay publishes the event
+                    return userRepository.insertIfAbsent(user)
+                            .switchIfEmpty(Mono.error(new RuntimeException("Email already in use")))
+                            .flatMap(u -> userEventOutbox.userRegistered(UserRegisteredEvent.builder()
+                                    .userId(String.valueOf(u.getId()))
+                                    .email(u.getEmail())
+                                    .name(u.getName())
+                                    .profileType(u.getProfileType())
+                                    .timestamp(java.time.Instant.now())
+                                    .build())
+                                    .thenReturn(u))
+                            .as(transactionalOperator::transactional)
+                            .flatMap(u -> emailBloomFilter.add(u.getEmail())
+                                    .onErrorResume(e -> {
+                                        log.warn("Could not broadcast registration of {}: {}", u.getEmail(),
+                                                e.getMessage());
+                                        return Mono.empty();
+                                    })
+                                    .thenReturn(u))
+                            .doOnSuccess(u -> log.info("Registered new user: {}", u.getEmail()));
+                })
+                .as(registerTimer::time);
     }
 
     public Mono<User> verifyEmail(String email, String code) {
         return userRepository.findByEmail(email)
                 .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
-                .flatMap(user -> {
-                    if (user.getVerificationCode() != null && user.getVerificationCode().equals(code)) {
-                        user.setVerified(true);
-                        user.setVerificationCode(null);
-                        user.setUpdatedAt(LocalDateTime.now());
-                        return userRepository.save(user);
-                    }
-                    return Mono.error(new RuntimeException("Invalid verification code"));
-                });
+                .flatMap(user -> userRepository.markVerified(user.getId(), user.getEmail(), code)
+                        .flatMap(rows -> {
+                            if (rows == 0) {
+                                return Mono.error(new RuntimeException("Invalid verification code"));
+                            }
+                            user.setVerified(true);
+                            user.setVerificationCode(null);
+                            user.setUpdatedAt(LocalDateTime.now());
+                            return userCredentialsCache.invalidate(user.getEmail()).thenReturn(user);
+                        }))
+                .as(verifyEmailTimer::time);
     }
 
     public Mono<Void> resendVerificationCode(String email) {
-        return userRepository.findByEmail(email)
-                .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
-                .flatMap(user -> {
-                    String newCode = String.format("%06d", secureRandom.nextInt(1000000));
-                    user.setVerificationCode(newCode);
-                    user.setUpdatedAt(LocalDateTime.now());
-                    return userRepository.save(user);
-                })
-                .then();
+        String newCode = String.format("%06d", secureRandom.nextInt(1000000));
+        return userRepository.updateVerificationCode(email, newCode)
+                .flatMap(rows -> rows == 0
+                        ? Mono.<Void>error(new RuntimeException("User not found"))
+                        : userCredentialsCache.invalidate(email))
+                .as(resendVerificationTimer::time);
     }
 
     public Mono<AuthResponse> login(String email, String password) {
-        return userRepository.findByEmail(email)
+        return userCredentialsCache.get(email)
                 .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
+                .flatMap(credentials -> passwordHashingService.matches(password, credentials.passwordHash())
+                        .flatMap(matches -> matches
+                                ? Mono.just(credentials)
+                                : Mono.<UserCredentials>error(new RuntimeException("Invalid credentials"))))
+                .doOnNext(credentials -> rehashIfNeeded(credentials, password))
+                .map(UserCredentials::toUser)
                 .flatMap(user -> {
-                    if (!passwordEncoder.matches(password, user.getPassword())) {
-                        return Mono.error(new RuntimeException("Invalid credentials"));
-                    }
-
                     // 1. Generate Access Token
                     String accessToken = jwtService.generateToken(user.getEmail());
 
                     // 2. Create Refresh Token (Persistent)
                     String refreshTokenStr = UUID.randomUUID().toString();
                     RefreshToken refreshTokenEntity = RefreshToken.builder()
-                            .token(refreshTokenStr)
+                            .tokenHash(TokenDigests.sha256(refreshTokenStr))
                             .userId(user.getId())
+                            .userEmail(user.getEmail())
                             .expiresAt(LocalDateTime.now().plusDays(7)) // 7 Days
                             .createdAt(LocalDateTime.now())
                             .isRevoked(false)
@@ -118,7 +188,7 @@ public class AuthService {
                     byte[] sessionKey = new byte[32]; // 256-bit key
                     secureRandom.nextBytes(sessionKey);
 
-                    Mono<Void> sessionSaveMono = redisSessionKeyStore.saveKey(sessionId, sessionKey);
+                    Mono<Void> sessionSaveMono = sessionKeyStore.saveKey(sessionId, sessionKey);
                     Mono<RefreshToken> refreshTokenSaveMono = refreshTokenRepository.save(refreshTokenEntity);
 
                     return Mono.when(sessionSaveMono, refreshTokenSaveMono)
@@ -128,58 +198,51 @@ public class AuthService {
                                     .sessionId(sessionId)
                                     .user(user)
                                     .build()));
-                });
+                })
+                .doOnNext(response -> startupTimeline.loginSucceeded())
+                .as(loginTimer::time);
+    }
+
+    private void rehashIfNeeded(UserCredentials credentials, String rawPassword) {
+        String currentHash = credentials.passwordHash();
+        if (!passwordHashingService.needsRehash(currentHash)) {
+            return;
+        }
+        // Upgrade in the background; the login response does not wait for it
+        passwordHashingService.encode(rawPassword)
+                .flatMap(newHash -> userRepository.replacePassword(credentials.id(), credentials.email(),
+                        currentHash, newHash))
+                .flatMap(rows -> userCredentialsCache.invalidate(credentials.email()).thenReturn(rows))
+                .subscribe(
+                        rows -> log.debug("Rehashed password for user {} (rows: {})", credentials.id(), rows),
+                        e -> log.warn("Background rehash failed for user {}: {}", credentials.id(),
+                                e.getMessage()));
     }
 
     public Mono<Void> logout(String sessionId) {
-        // Remove session key from Redis
-        return redisSessionKeyStore.removeKey(sessionId);
+        // Remove session key from Redis and every node's near-cache
+        return sessionKeyStore.removeKey(sessionId)
+                .as(logoutTimer::time);
     }
 
     public Mono<AuthResponse> refreshToken(String requestRefreshToken) {
-        return refreshTokenRepository.findByToken(requestRefreshToken)
-                .switchIfEmpty(Mono.error(new RuntimeException("Refresh token not found")))
-                .flatMap(refreshToken -> {
-                    if (refreshToken.isRevoked() || refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
-                        return Mono.error(new RuntimeException("Invalid or expired refresh token"));
-                    }
+        String newRefreshTokenStr = UUID.randomUUID().toString();
+        // Revoke, reissue and load the user in one round trip; an unknown, revoked, expired or
+        // concurrently replayed token matches no row
+        return refreshTokenRepository.rotate(TokenDigests.sha256(requestRefreshToken),
+                        TokenDigests.sha256(newRefreshTokenStr), LocalDateTime.now().plusDays(7))
+                .switchIfEmpty(Mono.error(new RuntimeException("Invalid or expired refresh token")))
+                // Session ID remains valid in Redis until TTL; the client keeps using it
+                .map(user -> AuthResponse.builder()
+                        .accessToken(jwtService.generateToken(user.getEmail()))
+                        .refreshToken(newRefreshTokenStr)
+                        .user(user)
+                        .build())
+                .as(refreshTokenTimer::time);
+    }
 
-                    return userRepository.findById(refreshToken.getUserId())
-                            .switchIfEmpty(Mono.error(new RuntimeException("User not found")))
-                            .flatMap(user -> {
-                                // Revoke old token
-                                refreshToken.setRevoked(true);
-
-                                // Generate new Access Token
-                                String newAccessToken = jwtService.generateToken(user.getEmail());
-
-                                // Generate new Refresh Token
-                                String newRefreshTokenStr = UUID.randomUUID().toString();
-                                RefreshToken newRefreshTokenEntity = RefreshToken.builder()
-                                        .token(newRefreshTokenStr)
-                                        .userId(user.getId())
-                                        .expiresAt(LocalDateTime.now().plusDays(7))
-                                        .createdAt(LocalDateTime.now())
-                                        .isRevoked(false)
-                                        .build();
-
-                                // Reuse or rotate session?
-                                // Usually we keep the session ID unless we want to force re-encryption
-                                // handshake.
-                                // For simplicity, we just return the tokens. Session ID remains valid in Redis
-                                // until TTL.
-                                // If client lost Session ID, they must login again.
-
-                                return refreshTokenRepository.save(refreshToken) // Save revoked
-                                        .then(refreshTokenRepository.save(newRefreshTokenEntity)) // Save new
-                                        .map(saved -> AuthResponse.builder()
-                                                .accessToken(newAccessToken)
-                                                .refreshToken(newRefreshTokenStr)
-                                                // .sessionId? Ideally client keeps it. If we don't return it, client
-                                                // uses old one.
-                                                .user(user)
-                                                .build());
-                            });
-                });
+    private static OperationTimer operationTimer(MeterRegistry meterRegistry, String operation) {
+        return OperationTimer.register(meterRegistry, "auth.operation", "Latency of an auth operation end to end",
+                "operation", operation);
     }
 }
@@ -0,0 +1,239 @@
+package com.sonifoy.auth.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonifoy.auth.application.dto.ImportedUser;
+import com.sonifoy.auth.application.dto.UserImportReport;
+import com.sonifoy.auth.infrastructure.persistence.EmailBloomFilter;
+import com.sonifoy.auth.infrastructure.persistence.UserBulkLoader;
+import com.sonifoy.auth.infrastructure.security.BCryptCostCalibrator;
+import com.sonifoy.auth.infrastructure.security.PasswordHashingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams users from NDJSON or CSV into {@code users}. Plain passwords are
+ * hashed in parallel on the {@link PasswordHashingService} pool; rows that
+ * already carry a BCrypt hash skip hashing. Imports keep fewer hashes in
+ * flight than the pool has workers so logins always find one free, and a
+ * saturated pool is waited out, never counted as a rejected row. Rows are loaded in chunks through
+ * {@link UserBulkLoader}, one chunk at a time, so a slow database slows the
+ * reader instead of buffering the input.
+ * <p>
+ * CSV input needs a header row naming any of {@code email, name, password,
+ * password_hash, profile_type, verified, roles}; roles are separated by
+ * {@code |}. NDJSON rows use the {@link ImportedUser} field names.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+    private static final String DEFAULT_PROFILE_TYPE = "LISTENER";
+
+    private final PasswordHashingService passwordHashingService;
+    private final UserBulkLoader userBulkLoader;
+    private final EmailBloomFilter emailBloomFilter;
+    private final ObjectMapper objectMapper;
+    private final StringDecoder lineDecoder = StringDecoder.allMimeTypes();
+    private final int chunkSize;
+    private final int hashConcurrency;
+    private final Duration maxOverloadBackoff;
+
+    public UserImportService(PasswordHashingService passwordHashingService, UserBulkLoader userBulkLoader,
+            EmailBloomFilter emailBloomFilter, ObjectMapper objectMapper,
+            @Value("${auth.import.chunk-size:10000}") int chunkSize,
+            @Value("${auth.import.hash-concurrency:0}") int hashConcurrency,
+            @Value("${auth.import.max-overload-backoff:PT2S}") Duration maxOverloadBackoff) {
+        this.passwordHashingService = passwordHashingService;
+        this.userBulkLoader = userBulkLoader;
+        this.emailBloomFilter = emailBloomFilter;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.hashConcurrency = hashConcurrency(hashConcurrency, passwordHashingService.getPoolSize());
+        this.maxOverloadBackoff = maxOverloadBackoff;
+        this.lineDecoder.setMaxInMemorySize(1024 * 1024);
+    }
+
+    public Mono<UserImportReport> importUsers(Flux<DataBuffer> input, Format format) {
+        long startedAt = System.nanoTime();
+        AtomicLong received = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong inserted = new AtomicLong();
+        AtomicLong throttled = new AtomicLong();
+
+        Flux<String> lines = lineDecoder.decode(input, STRING_TYPE, null, null)
+                .filter(line -> !line.isBlank());
+        Flux<ImportedUser> rows = format == Format.CSV ? parseCsv(lines) : lines.map(this::parseJson);
+
+        return rows
+                .doOnNext(row -> received.incrementAndGet())
+                .flatMapSequential(row -> prepare(row, throttled)
+                        .onErrorResume(e -> {
+                            rejected.incrementAndGet();
+                            log.debug("Rejected import row: {}", e.getMessage());
+                            return Mono.empty();
+                        }), hashConcurrency, 1)
+                .buffer(chunkSize)
+                .concatMap(chunk -> userBulkLoader.load(chunk)
+                        .flatMap(emails -> emailBloomFilter.addAll(emails)
+                                .onErrorResume(e -> Mono.empty())
+                                .thenReturn(emails.size()))
+                        .doOnNext(count -> log.info("Imported {} of {} rows ({} total)", count, chunk.size(),
+                                inserted.addAndGet(count))))
+                .then(Mono.fromSupplier(() -> {
+                    long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+                    long accepted = received.get() - rejected.get();
+                    return new UserImportReport(received.get(), inserted.get(), accepted - inserted.get(),
+                            rejected.get(), throttled.get(), elapsedMillis, accepted * 1000 / elapsedMillis);
+                }))
+                .doOnNext(report -> log.info("User import finished: {}", report));
+    }
+
+    /**
+     * Half the hashing pool by default, and always at least one worker short of
+     * it; an import cannot hold every worker while logins queue behind it.
+     */
+    private static int hashConcurrency(int configured, int poolSize) {
+        int limit = Math.max(1, poolSize - 1);
+        if (configured <= 0) {
+            return Math.max(1, poolSize / 2);
+        }
+        if (configured > limit) {
+            log.warn("auth.import.hash-concurrency {} leaves no hashing worker for logins; using {}", configured,
+                    limit);
+            return limit;
+        }
+        return configured;
+    }
+
+    /**
+     * Validates a row and resolves its password to a BCrypt hash. Rows with a
+     * hash that is not a complete BCrypt hash are rejected.
+     */
+    private Mono<ImportedUser> prepare(ImportedUser row, AtomicLong throttled) {
+        if (row == null) {
+            return Mono.error(new IllegalArgumentException("Unparseable row"));
+        }
+        if (row.email() == null || row.email().isBlank() || row.name() == null) {
+            return Mono.error(new IllegalArgumentException("Missing email or name"));
+        }
+        if (row.passwordHash() != null) {
+            return BCryptCostCalibrator.isWellFormed(row.passwordHash())
+                    ? Mono.just(normalize(row, row.passwordHash()))
+                    : Mono.error(new IllegalArgumentException("Not a BCrypt hash for " + row.email()));
+        }
+        if (row.password() == null || row.password().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("No password for " + row.email()));
+        }
+        return passwordHashingService.encode(row.password())
+                // Logins share the pool; a saturated pool is retried for as long as it takes, never a bad row
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(50))
+                        .maxBackoff(maxOverloadBackoff)
+                        .filter(e -> e instanceof ResponseStatusException status
+                                && status.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE)
+                        .doBeforeRetry(signal -> throttled.incrementAndGet()))
+                .map(hash -> normalize(row, hash));
+    }
+
+    /**
+     * The row as it is loaded: hash only, and the defaults registration applies.
+     */
+    private static ImportedUser normalize(ImportedUser row, String passwordHash) {
+        return new ImportedUser(row.email(), row.name(), null, passwordHash,
+                row.profileType() != null ? row.profileType() : DEFAULT_PROFILE_TYPE, row.verified(), row.roles());
+    }
+
+    private ImportedUser parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ImportedUser.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Flux<ImportedUser> parseCsv(Flux<String> lines) {
+        return lines.switchOnFirst((first, all) -> {
+            if (!first.hasValue()) {
+                return all.then(Mono.empty());
+            }
+            List<String> header = splitCsv(first.get()).stream().map(String::trim).toList();
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i), i);
+            }
+            return all.skip(1).map(line -> {
+                List<String> fields = splitCsv(line);
+                String roles = field(fields, columns, "roles");
+                String verified = field(fields, columns, "verified");
+                return new ImportedUser(
+                        field(fields, columns, "email"),
+                        field(fields, columns, "name"),
+                        field(fields, columns, "password"),
+                        field(fields, columns, "password_hash"),
+                        field(fields, columns, "profile_type"),
+                        verified == null ? null : Boolean.valueOf(verified),
+                        roles == null ? null : new LinkedHashSet<>(Arrays.asList(roles.split("\\|"))));
+            });
+        });
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
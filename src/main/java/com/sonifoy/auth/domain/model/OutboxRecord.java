@@ -0,0 +1,9 @@
+package com.sonifoy.auth.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A claimed, not yet published row of the {@code outbox} table.
+ */
+public record OutboxRecord(Long id, String eventType, String messageKey, String payload, LocalDateTime createdAt) {
+}
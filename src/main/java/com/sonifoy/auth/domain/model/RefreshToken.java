@@ -17,8 +17,11 @@ import java.time.LocalDateTime;
 public class RefreshToken {
     @Id
     private Long id;
-    private String token;
+    // SHA-256 of the token handed to the client; the token itself is never stored
+    private byte[] tokenHash;
     private Long userId;
+    // Partition key of users, so the owner is found without probing every partition
+    private String userEmail;
     private LocalDateTime expiresAt;
 
     @Builder.Default
@@ -0,0 +1,34 @@
+package com.sonifoy.auth.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * The columns of {@code users} that login needs: the credentials, and the
+ * profile fields the login response returns. The verification code, IP
+ * address and device data of {@link User} are left out.
+ */
+public record UserCredentials(Long id, String email, String passwordHash, boolean verified, Set<String> roles,
+        String name, String profileType, String avatarUrl, String city, String country,
+        LocalDateTime lastLoginAt, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    /**
+     * The user as returned in auth responses; never carries the password hash.
+     */
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .verified(verified)
+                .roles(roles)
+                .name(name)
+                .profileType(profileType)
+                .avatarUrl(avatarUrl)
+                .city(city)
+                .country(country)
+                .lastLoginAt(lastLoginAt)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -1,28 +1,59 @@
 package com.sonifoy.auth.infrastructure.adapter.out.messaging;
 
 import com.sonifoy.auth.application.dto.UserRegisteredEvent;
-import lombok.RequiredArgsConstructor;
+import com.sonifoy.auth.infrastructure.config.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
 
+import java.util.List;
+
+/**
+ * Publishes user events through a reactor-kafka {@link KafkaSender}. The sender
+ * only requests more events while fewer than {@code max-in-flight} records are
+ * awaiting acknowledgement, so a slow broker slows the upstream {@link Flux}
+ * instead of buffering it. Values are encoded with {@link UserEventCodec}.
+ * Each publish, until its last acknowledgement, is timed as {@code auth.kafka.publish}.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private static final String TOPIC = "user-events";
-
-    public void sendUserRegisteredEvent(UserRegisteredEvent event) {
-        log.info("Publishing UserRegisteredEvent for email: {}", event.getEmail());
-        kafkaTemplate.send(TOPIC, event.getUserId(), event)
-                .whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.info("Successfully published UserRegisteredEvent to topic: {}", TOPIC);
-                    } else {
-                        log.error("Failed to publish UserRegisteredEvent", ex);
-                    }
-                });
+    static final String TOPIC = "user-events";
+
+    private final KafkaSender<String, UserRegisteredEvent> userEventSender;
+    private final OperationTimer publishTimer;
+
+    public KafkaProducerService(KafkaSender<String, UserRegisteredEvent> userEventSender,
+            MeterRegistry meterRegistry) {
+        this.userEventSender = userEventSender;
+        this.publishTimer = OperationTimer.register(meterRegistry, "auth.kafka.publish",
+                "Time to publish a batch of user events until the broker acknowledged all of them");
+    }
+
+    /**
+     * Completes once every event has been acknowledged, failing on the first
+     * record the broker rejects.
+     */
+    public Mono<Void> publish(Flux<UserRegisteredEvent> events) {
+        return userEventSender.send(events.map(KafkaProducerService::toRecord))
+                .count()
+                .doOnNext(count -> log.debug("Published {} UserRegisteredEvents to topic: {}", count, TOPIC))
+                .doOnError(ex -> log.error("Failed to publish UserRegisteredEvents", ex))
+                .then()
+                .as(publishTimer::time);
+    }
+
+    public Mono<Void> sendUserRegisteredEvents(List<UserRegisteredEvent> events) {
+        return publish(Flux.fromIterable(events));
+    }
+
+    private static SenderRecord<String, UserRegisteredEvent, String> toRecord(UserRegisteredEvent event) {
+        return SenderRecord.create(new ProducerRecord<>(TOPIC, event.getUserId(), event), event.getUserId());
     }
 }
@@ -0,0 +1,47 @@
+package com.sonifoy.auth.infrastructure.adapter.out.messaging;
+
+import com.sonifoy.auth.application.dto.UserRegisteredEvent;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaSenderConfig {
+
+    @Bean
+    public SenderOptions<String, UserRegisteredEvent> userEventSenderOptions(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${auth.kafka.producer.linger:20ms}") Duration linger,
+            @Value("${auth.kafka.producer.batch-size:65536}") int batchSize,
+            @Value("${auth.kafka.producer.compression:lz4}") String compression,
+            @Value("${auth.kafka.producer.max-in-flight:1024}") int maxInFlight) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, (int) linger.toMillis());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        UserEventCodec codec = new UserEventCodec();
+        return SenderOptions.<String, UserRegisteredEvent>create(props)
+                .withKeySerializer(new StringSerializer())
+                .withValueSerializer(codec)
+                // Caps records awaiting acknowledgement; upstream demand stops at this bound
+                .maxInFlight(maxInFlight);
+    }
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, UserRegisteredEvent> userEventSender(
+            SenderOptions<String, UserRegisteredEvent> userEventSenderOptions) {
+        return KafkaSender.create(userEventSenderOptions);
+    }
+}
@@ -0,0 +1,194 @@
+package com.sonifoy.auth.infrastructure.adapter.out.messaging;
+
+import com.sonifoy.auth.application.dto.UserRegisteredEvent;
+import com.sonifoy.auth.domain.model.OutboxRecord;
+import com.sonifoy.auth.infrastructure.persistence.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to Kafka. Each replica claims batches with
+ * {@code FOR UPDATE SKIP LOCKED} and a lease, publishes them in bulk and marks
+ * them sent, so replicas never publish the same row concurrently. Delivery is
+ * at least once.
+ * <p>
+ * A failed or timed-out publish hands the batch back with exponential backoff
+ * (from {@code retry-backoff} up to {@code max-retry-backoff}) and no retry
+ * limit, so a Kafka outage only delays events. The publish timeout is kept
+ * below the lease, so a slow publish has given up before another replica can
+ * claim the same rows. Rows that cannot be published at all (unknown type,
+ * undecodable payload) count as failures; after {@code max-failures} they are
+ * moved to the dead letters ({@code dead_at}), reported by
+ * {@code auth.outbox.dead}, which should alert whenever it is above zero.
+ * <p>
+ * A scheduled run only starts the drain: the batches run as one non-blocking
+ * loop, so a large backlog never ties up a scheduler thread, and a tick that
+ * finds the previous drain still running does nothing.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final UserEventOutbox userEventOutbox;
+    private final KafkaProducerService kafkaProducerService;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration publishTimeout;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final int maxFailures;
+    private final Duration retention;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter publishFailures;
+    private final Counter deadLettered;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public OutboxRelay(OutboxRepository outboxRepository, UserEventOutbox userEventOutbox,
+            KafkaProducerService kafkaProducerService, MeterRegistry meterRegistry,
+            @Value("${auth.outbox.batch-size:500}") int batchSize,
+            @Value("${auth.outbox.lease:30s}") Duration lease,
+            @Value("${auth.outbox.publish-timeout:15s}") Duration publishTimeout,
+            @Value("${auth.outbox.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${auth.outbox.max-retry-backoff:5m}") Duration maxRetryBackoff,
+            @Value("${auth.outbox.max-failures:3}") int maxFailures,
+            @Value("${auth.outbox.retention:1d}") Duration retention) {
+        if (publishTimeout.compareTo(lease.dividedBy(2)) > 0) {
+            throw new IllegalArgumentException("auth.outbox.publish-timeout (" + publishTimeout
+                    + ") must be at most half of auth.outbox.lease (" + lease + ")");
+        }
+        this.outboxRepository = outboxRepository;
+        this.userEventOutbox = userEventOutbox;
+        this.kafkaProducerService = kafkaProducerService;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.publishTimeout = publishTimeout;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.maxFailures = maxFailures;
+        this.retention = retention;
+        this.batchSizeSummary = DistributionSummary.builder("auth.outbox.batch.size")
+                .description("Outbox rows published per relay batch")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows not yet published")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest unpublished outbox row")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.dead", dead, AtomicLong::get)
+                .description("Outbox rows moved to the dead letters; each needs manual attention")
+                .register(meterRegistry);
+        this.publishFailures = Counter.builder("auth.outbox.publish.failures")
+                .description("Relay batches handed back for retry after a failed or timed-out publish")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("auth.outbox.dead.lettered")
+                .description("Outbox rows moved to the dead letters")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.poll-interval:PT0.5S}")
+    public void relay() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        relayBatch()
+                .expand(relayed -> relayed == batchSize ? relayBatch() : Mono.empty())
+                .then(outboxRepository.pendingStats())
+                .doOnNext(stats -> {
+                    pending.set(stats.pending());
+                    lagSeconds.set(stats.lagSeconds());
+                    dead.set(stats.dead());
+                })
+                .doFinally(signal -> draining.set(false))
+                .subscribe(null, e -> log.warn("Outbox relay run failed: {}", e.getMessage()));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.purge-interval:PT1H}")
+    public void purge() {
+        outboxRepository.purgeSent(retention)
+                .subscribe(purged -> log.debug("Purged {} sent outbox rows", purged),
+                        e -> log.warn("Outbox purge failed: {}", e.getMessage()));
+    }
+
+    /**
+     * Publishes one claimed batch and emits how many rows it claimed; a failed
+     * publish emits 0 so the drain stops until the next tick.
+     */
+    private Mono<Integer> relayBatch() {
+        return outboxRepository.claimBatch(batchSize, lease)
+                .collectList()
+                .flatMap(records -> {
+                    if (records.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    batchSizeSummary.record(records.size());
+
+                    List<Long> ids = new ArrayList<>(records.size());
+                    List<UserRegisteredEvent> events = new ArrayList<>(records.size());
+                    List<Mono<Void>> failures = new ArrayList<>();
+                    for (OutboxRecord record : records) {
+                        try {
+                            events.add(decode(record));
+                            ids.add(record.id());
+                        } catch (Exception e) {
+                            failures.add(recordFailure(record, e));
+                        }
+                    }
+                    Mono<Integer> publish = ids.isEmpty()
+                            ? Mono.just(records.size())
+                            : kafkaProducerService.sendUserRegisteredEvents(events)
+                                    .timeout(publishTimeout)
+                                    .then(outboxRepository.markSent(ids))
+                                    .thenReturn(records.size())
+                                    .onErrorResume(e -> {
+                                        publishFailures.increment();
+                                        log.warn("Publishing {} outbox rows failed, retrying with backoff: {}",
+                                                ids.size(), e.toString());
+                                        return outboxRepository.retryLater(ids, retryBackoff, maxRetryBackoff)
+                                                .thenReturn(0);
+                                    });
+                    return Flux.concat(failures).then(publish);
+                });
+    }
+
+    private UserRegisteredEvent decode(OutboxRecord record) throws Exception {
+        if (!UserEventOutbox.USER_REGISTERED.equals(record.eventType())) {
+            throw new IllegalArgumentException("Unknown outbox event type " + record.eventType());
+        }
+        return userEventOutbox.decodeUserRegistered(record.payload());
+    }
+
+    private Mono<Void> recordFailure(OutboxRecord record, Exception cause) {
+        // Another replica (e.g. a newer build mid-rollout) may still understand the row, so it
+        // gets max-failures chances before it is set aside
+        return outboxRepository.recordFailure(record.id(), cause.toString(), maxFailures, lease)
+                .doOnNext(movedToDeadLetters -> {
+                    if (movedToDeadLetters) {
+                        deadLettered.increment();
+                        log.error("Outbox row {} moved to dead letters after {} failures", record.id(), maxFailures,
+                                cause);
+                    } else {
+                        log.warn("Outbox row {} could not be published: {}", record.id(), cause.toString());
+                    }
+                })
+                .then();
+    }
+}
@@ -0,0 +1,132 @@
+package com.sonifoy.auth.infrastructure.adapter.out.messaging;
+
+import com.sonifoy.auth.application.dto.UserRegisteredEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact binary encoding of {@link UserRegisteredEvent} for Kafka.
+ * <pre>
+ * version:u8 = 1
+ * userId, email, name, profileType: varint(len + 1) then UTF-8 bytes; 0 = null
+ * timestamp: u8 present, then zigzag varint epochSecond and varint nanos
+ * </pre>
+ * The leading version byte doubles as the format marker: JSON records written
+ * previously start with {@code '{'}, so consumers tell the formats apart from
+ * the first byte without a per-record header.
+ */
+public class UserEventCodec implements Serializer<UserRegisteredEvent>, Deserializer<UserRegisteredEvent> {
+
+    public static final byte VERSION = 1;
+
+    @Override
+    public byte[] serialize(String topic, UserRegisteredEvent event) {
+        if (event == null) {
+            return null;
+        }
+        byte[] userId = utf8(event.getUserId());
+        byte[] email = utf8(event.getEmail());
+        byte[] name = utf8(event.getName());
+        byte[] profileType = utf8(event.getProfileType());
+
+        // Upper bound: version, four strings with 5-byte length prefixes, timestamp flag + 10 + 5 bytes
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 * 5 + length(userId) + length(email) + length(name)
+                + length(profileType) + 16);
+        buffer.put(VERSION);
+        putString(buffer, userId);
+        putString(buffer, email);
+        putString(buffer, name);
+        putString(buffer, profileType);
+        Instant timestamp = event.getTimestamp();
+        if (timestamp == null) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1);
+            putVarLong(buffer, (timestamp.getEpochSecond() << 1) ^ (timestamp.getEpochSecond() >> 63));
+            putVarLong(buffer, timestamp.getNano());
+        }
+
+        byte[] result = new byte[buffer.position()];
+        buffer.flip().get(result);
+        return result;
+    }
+
+    @Override
+    public UserRegisteredEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new SerializationException("Unsupported UserRegisteredEvent version " + version);
+            }
+            UserRegisteredEvent.UserRegisteredEventBuilder builder = UserRegisteredEvent.builder()
+                    .userId(getString(buffer))
+                    .email(getString(buffer))
+                    .name(getString(buffer))
+                    .profileType(getString(buffer));
+            if (buffer.get() == 1) {
+                long zigzag = getVarLong(buffer);
+                long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+                builder.timestamp(Instant.ofEpochSecond(seconds, getVarLong(buffer)));
+            }
+            return builder.build();
+        } catch (RuntimeException e) {
+            throw new SerializationException("Invalid UserRegisteredEvent payload", e);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            putVarLong(buffer, 0);
+            return;
+        }
+        putVarLong(buffer, value.length + 1L);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = (int) getVarLong(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+}
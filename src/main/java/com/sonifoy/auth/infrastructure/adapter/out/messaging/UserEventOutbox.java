@@ -0,0 +1,33 @@
+package com.sonifoy.auth.infrastructure.adapter.out.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonifoy.auth.application.dto.UserRegisteredEvent;
+import com.sonifoy.auth.infrastructure.persistence.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records user events in the outbox table. Callers run this inside the same
+ * transaction as the change the event describes; {@link OutboxRelay} publishes
+ * them afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEventOutbox {
+
+    public static final String USER_REGISTERED = "UserRegistered";
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public Mono<Void> userRegistered(UserRegisteredEvent event) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(event))
+                .flatMap(payload -> outboxRepository.append(USER_REGISTERED, event.getUserId(), payload));
+    }
+
+    UserRegisteredEvent decodeUserRegistered(String payload) throws JsonProcessingException {
+        return objectMapper.readValue(payload, UserRegisteredEvent.class);
+    }
+}
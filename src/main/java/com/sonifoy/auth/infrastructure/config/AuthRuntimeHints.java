@@ -0,0 +1,74 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import com.sonifoy.auth.adapter.web.dto.AuthResponse;
+import com.sonifoy.auth.adapter.web.dto.RefreshTokenRequest;
+import com.sonifoy.auth.adapter.web.dto.ResendVerifyRequest;
+import com.sonifoy.auth.adapter.web.dto.VerifyRequest;
+import com.sonifoy.auth.application.dto.ImportedUser;
+import com.sonifoy.auth.application.dto.UserImportReport;
+import com.sonifoy.auth.application.dto.UserRegisteredEvent;
+import com.sonifoy.auth.domain.model.OutboxRecord;
+import com.sonifoy.auth.domain.model.RefreshToken;
+import com.sonifoy.auth.domain.model.User;
+import com.sonifoy.auth.domain.model.UserCredentials;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the native image. Spring AOT already
+ * covers beans, repositories and controller signatures; this adds what is only
+ * reached reflectively at runtime.
+ */
+public class AuthRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Serialized by Jackson outside controller signatures: Redis cache entries, outbox payloads, imports
+    private static final Class<?>[] JSON_TYPES = {
+            AuthResponse.class, RefreshTokenRequest.class, ResendVerifyRequest.class, VerifyRequest.class,
+            ImportedUser.class, UserImportReport.class, UserRegisteredEvent.class,
+            User.class, UserCredentials.class, RefreshToken.class, OutboxRecord.class
+    };
+
+    // jjwt-api instantiates its runtime-only implementation by class name
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.impl.crypto.EllipticCurveProvider",
+            "io.jsonwebtoken.impl.crypto.RsaProvider",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    // The provider loads its algorithm tables by name and skips any it cannot find; only these are used
+    private static final List<String> BOUNCY_CASTLE_MAPPINGS = List.of(
+            "org.bouncycastle.jcajce.provider.symmetric.AES$Mappings",
+            "org.bouncycastle.jcajce.provider.digest.SHA256$Mappings",
+            "org.bouncycastle.jcajce.provider.asymmetric.EC$Mappings");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        hints.reflection().registerType(BouncyCastleProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        for (String type : BOUNCY_CASTLE_MAPPINGS) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.resources().registerPattern("db/migration/*.sql");
+    }
+}
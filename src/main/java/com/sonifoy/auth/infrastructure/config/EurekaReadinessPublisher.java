@@ -0,0 +1,36 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mirrors the readiness state into the Eureka instance status. The instance
+ * registers as {@code STARTING} ({@code eureka.instance.initial-status}) and
+ * only turns {@code UP} once the application accepts traffic, i.e. after
+ * startup runners such as {@link JitWarmup} have finished.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EurekaReadinessPublisher {
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        InstanceStatus status = event.getState() == ReadinessState.ACCEPTING_TRAFFIC
+                ? InstanceStatus.UP
+                : InstanceStatus.OUT_OF_SERVICE;
+        applicationInfoManager.ifAvailable(manager -> {
+            manager.setInstanceStatus(status);
+            log.info("Eureka instance status set to {}", status);
+        });
+    }
+}
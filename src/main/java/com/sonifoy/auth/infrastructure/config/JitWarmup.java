@@ -0,0 +1,270 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonifoy.auth.adapter.web.dto.AuthResponse;
+import com.sonifoy.auth.domain.model.User;
+import com.sonifoy.auth.infrastructure.security.JwtService;
+import com.sonifoy.auth.infrastructure.security.PayloadEncryptionFilter;
+import com.sonifoy.auth.infrastructure.security.PayloadRouteClassifier;
+import com.sonifoy.auth.infrastructure.security.SessionKeyStore;
+import com.sonifoy.auth.infrastructure.security.crypto.CryptoService;
+import com.sonifoy.auth.infrastructure.security.crypto.EnvelopeFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the hot request paths with synthetic data until the JIT has compiled
+ * them, before the instance reports ready. Each round exercises
+ * {@link PayloadEncryptionFilter} (and through it {@link CryptoService}) in
+ * both wire formats and several payload sizes, JWT signing and parsing,
+ * Jackson serialization of {@link AuthResponse} and BCrypt. Sessions come from
+ * an in-memory key store, so nothing touches Redis or Postgres.
+ * <p>
+ * Compilation counts as settled once {@code settle-rounds} consecutive rounds
+ * spend less than {@code settle-ratio} of their time in the JIT; warm-up stops
+ * there or at {@code max-duration}. As a runner it holds back the
+ * {@code ACCEPTING_TRAFFIC} readiness state, which {@link EurekaReadinessPublisher}
+ * forwards to Eureka. Native images have nothing to compile and skip it.
+ * The warm-up runs its own {@link CryptoService}, filter and {@link JwtService}
+ * copy against a throwaway registry: the JIT compiles the same code either
+ * way, and the production crypto, JWT and payload meters only ever see real
+ * traffic.
+ */
+@Component
+@Slf4j
+public class JitWarmup implements ApplicationRunner {
+
+    private static final String PATH = "/api/v1/users/me";
+    private static final String SESSION_ID = "3f0c9a52-8d3e-4b7a-9a41-5b2f0c8e7d16";
+    private static final String PASSWORD = "warm-up-password";
+    private static final int[] PAYLOAD_SIZES = {256, 4096, 65536};
+    private static final EnvelopeFormat[] FORMATS = EnvelopeFormat.values();
+    private static final int BCRYPT_EVERY = 16;
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final PayloadRouteClassifier routeClassifier;
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final int roundSize;
+    private final int settleRounds;
+    private final double settleRatio;
+    private final AtomicLong durationMillis = new AtomicLong(-1);
+
+    private volatile String status = "PENDING";
+    private volatile long iterations;
+    private volatile long rounds;
+    private volatile long compilationMillis;
+
+    public JitWarmup(JwtService jwtService, ObjectMapper objectMapper,
+            PayloadRouteClassifier routeClassifier, MeterRegistry meterRegistry,
+            @Value("${auth.warmup.enabled:true}") boolean enabled,
+            @Value("${auth.warmup.max-duration:PT30S}") Duration maxDuration,
+            @Value("${auth.warmup.round-size:500}") int roundSize,
+            @Value("${auth.warmup.settle-rounds:3}") int settleRounds,
+            @Value("${auth.warmup.settle-ratio:0.05}") double settleRatio) {
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.routeClassifier = routeClassifier;
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.roundSize = roundSize;
+        this.settleRounds = settleRounds;
+        this.settleRatio = settleRatio;
+        TimeGauge.builder("auth.warmup.duration", durationMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time spent warming up the JIT before reporting ready")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            status = "DISABLED";
+            return;
+        }
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        if (compiler == null || !compiler.isCompilationTimeMonitoringSupported()) {
+            status = "SKIPPED";
+            log.info("No JIT compiler to warm up");
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + maxDuration.toNanos();
+        long compilationAtStart = compiler.getTotalCompilationTime();
+        try {
+            Workload workload = new Workload();
+            int quietRounds = 0;
+            while (quietRounds < settleRounds && System.nanoTime() < deadline) {
+                long roundStartedAt = System.nanoTime();
+                long compilationBefore = compiler.getTotalCompilationTime();
+                for (int i = 0; i < roundSize; i++) {
+                    workload.run(iterations++);
+                }
+                long roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStartedAt);
+                long compiledMillis = compiler.getTotalCompilationTime() - compilationBefore;
+                quietRounds = compiledMillis <= roundMillis * settleRatio ? quietRounds + 1 : 0;
+                rounds++;
+            }
+            status = quietRounds >= settleRounds ? "SETTLED" : "TIMED_OUT";
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; it must not keep the instance from starting
+            status = "FAILED";
+            log.warn("JIT warm-up failed after {} iterations: {}", iterations, e.getMessage());
+        }
+        compilationMillis = compiler.getTotalCompilationTime() - compilationAtStart;
+        durationMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        log.info("JIT warm-up {} after {} ms: {} iterations in {} rounds, {} ms of JIT compilation", status,
+                durationMillis.get(), iterations, rounds, compilationMillis);
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("status", status);
+        report.put("durationMillis", durationMillis.get());
+        report.put("iterations", iterations);
+        report.put("rounds", rounds);
+        report.put("compilationMillis", compilationMillis);
+        return report;
+    }
+
+    /**
+     * Synthetic requests prepared once; {@link #run(long)} cycles through every
+     * payload size and wire format.
+     */
+    private final class Workload {
+        private final byte[][][] requests = new byte[FORMATS.length][PAYLOAD_SIZES.length][];
+        private final HttpHeaders[] headers = new HttpHeaders[FORMATS.length];
+        private final PayloadEncryptionFilter filter;
+        private final WebFilterChain chain;
+        private final MeterRegistry warmupRegistry = new SimpleMeterRegistry();
+        private final CryptoService cryptoService = new CryptoService(warmupRegistry);
+        private final JwtService jwtService = JitWarmup.this.jwtService.withMeterRegistry(warmupRegistry);
+        private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        private final String passwordHash = bcrypt.encode(PASSWORD);
+        private final AuthResponse response;
+
+        Workload() {
+            byte[] sessionKey = new byte[32];
+            new SecureRandom().nextBytes(sessionKey);
+            filter = new PayloadEncryptionFilter(cryptoService, new InMemorySessionKeyStore(sessionKey),
+                    routeClassifier, warmupRegistry);
+
+            for (EnvelopeFormat format : FORMATS) {
+                HttpHeaders formatHeaders = new HttpHeaders();
+                formatHeaders.set("X-Session-ID", SESSION_ID);
+                formatHeaders.setContentType(format.getMediaType());
+                formatHeaders.setAccept(List.of(format.getMediaType()));
+                headers[format.ordinal()] = HttpHeaders.readOnlyHttpHeaders(formatHeaders);
+                for (int s = 0; s < PAYLOAD_SIZES.length; s++) {
+                    ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+                    cryptoService.encrypt(ByteBuffer.wrap(json(PAYLOAD_SIZES[s])), sessionKey, format, envelope);
+                    requests[format.ordinal()][s] = envelope.toByteArray();
+                }
+            }
+
+            response = AuthResponse.builder()
+                    .refreshToken(SESSION_ID)
+                    .sessionId(SESSION_ID)
+                    .user(User.builder()
+                            .id(1L)
+                            .email("warmup@sonifoy.com")
+                            .name("Warm Up")
+                            .roles(Set.of("USER"))
+                            .verified(true)
+                            .profileType("LISTENER")
+                            .build())
+                    .build();
+
+            chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+                    .flatMap(requestBody -> {
+                        DataBufferUtils.release(requestBody);
+                        ServerHttpResponse httpResponse = exchange.getResponse();
+                        httpResponse.setStatusCode(HttpStatus.OK);
+                        httpResponse.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(response))
+                                .flatMap(body -> httpResponse.writeWith(
+                                        Mono.just(httpResponse.bufferFactory().wrap(body))));
+                    });
+        }
+
+        void run(long iteration) {
+            EnvelopeFormat format = FORMATS[(int) (iteration % FORMATS.length)];
+            int size = (int) (iteration % PAYLOAD_SIZES.length);
+            ServerWebExchange exchange = WarmupExchanges.post(PATH, headers[format.ordinal()],
+                    requests[format.ordinal()][size]);
+            filter.filter(exchange, chain).block();
+            if (WarmupExchanges.writtenBytes(exchange) == 0) {
+                throw new IllegalStateException("Warm-up request produced no response body");
+            }
+
+            String token = jwtService.generateToken("warmup" + (iteration % 64) + "@sonifoy.com");
+            jwtService.extractUsername(token);
+            response.setAccessToken(token);
+
+            if (iteration % BCRYPT_EVERY == 0 && !bcrypt.matches(PASSWORD, passwordHash)) {
+                throw new IllegalStateException("Warm-up BCrypt hash did not match");
+            }
+        }
+
+        private byte[] json(int size) {
+            StringBuilder json = new StringBuilder(size + 32).append("{\"data\":\"");
+            while (json.length() < size - 2) {
+                json.append('x');
+            }
+            return json.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class InMemorySessionKeyStore implements SessionKeyStore {
+        private final byte[] key;
+
+        InMemorySessionKeyStore(byte[] key) {
+            this.key = key;
+        }
+
+        @Override
+        public Mono<Void> saveKey(String sessionId, byte[] key) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<byte[]> getKey(String sessionId) {
+            return SESSION_ID.equals(sessionId) ? Mono.just(key) : Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> removeKey(String sessionId) {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/warmup}: outcome and duration of the startup JIT warm-up.
+ */
+@Component
+@Endpoint(id = "warmup")
+@RequiredArgsConstructor
+public class JitWarmupEndpoint {
+
+    private final JitWarmup jitWarmup;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        return jitWarmup.report();
+    }
+}
@@ -1,49 +1,117 @@
 package com.sonifoy.auth.infrastructure.config;
 
 import com.github.javafaker.Faker;
+import com.sonifoy.auth.application.dto.ImportedUser;
 import com.sonifoy.auth.domain.model.User;
+import com.sonifoy.auth.infrastructure.persistence.UserBulkLoader;
 import com.sonifoy.auth.infrastructure.persistence.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.sonifoy.auth.infrastructure.security.SessionKeyStore;
+import com.sonifoy.auth.infrastructure.security.TokenDigests;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Seeds a local database with {@code auth.seed.users} users
+ * ({@code user<n>@example.com}, password {@value #DEFAULT_PASSWORD}), refresh
+ * tokens and Redis sessions for load testing. Users are generated in chunks on
+ * the parallel scheduler and written through {@link UserBulkLoader}'s COPY path
+ * without outbox events. Every chunk reseeds its thread's {@link Faker} from
+ * {@code auth.seed.random-seed} and the chunk number, so a given seed produces
+ * the same dataset whatever the parallelism.
+ * <p>
+ * Refresh token {@code k} of a user is the string
+ * {@code seed-refresh:<email>:<k>}, so load tests can present them without a
+ * login. Sessions are spread round-robin over the users; session {@code k} of
+ * a user has the id {@code UUID.nameUUIDFromBytes("seed-session:<email>:<k>")}
+ * and the key {@code SHA-256("seed-session-key:<email>:<k>")}, so load tests
+ * can derive both the same way.
+ */
 @Component
 @Profile("local")
-@RequiredArgsConstructor
 @Slf4j
 public class LocalAuthSeeder implements CommandLineRunner {
 
+    private static final String DEFAULT_PASSWORD = "Perros123*";
+
+    private static final String INSERT_REFRESH_TOKENS = """
+            INSERT INTO refresh_tokens (token_hash, user_id, user_email, expires_at)
+            SELECT sha256(convert_to('seed-refresh:' || u.email || ':' || n, 'UTF8')), u.id, u.email,
+                   LOCALTIMESTAMP + INTERVAL '7 days'
+            FROM users u CROSS JOIN generate_series(1, :perUser) n
+            WHERE u.email = ANY(:emails)
+            """;
+
+    private static final ThreadLocal<Random> RANDOMS = ThreadLocal.withInitial(Random::new);
+    // Faker keeps the Random it was built with, so reseeding RANDOMS reseeds the Faker
+    private static final ThreadLocal<Faker> FAKERS = ThreadLocal.withInitial(() -> new Faker(RANDOMS.get()));
+
     private final UserRepository userRepository;
+    private final UserBulkLoader userBulkLoader;
+    private final SessionKeyStore sessionKeyStore;
+    private final DatabaseClient databaseClient;
     private final PasswordEncoder passwordEncoder;
-    private final Faker faker = new Faker();
+    private final int userCount;
+    private final long randomSeed;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int refreshTokensPerUser;
+    private final int sessionCount;
 
-    private static final int USER_COUNT = 20000;
-    private static final int BATCH_SIZE = 500;
-    private static final String DEFAULT_PASSWORD = "Perros123*";
+    public LocalAuthSeeder(UserRepository userRepository, UserBulkLoader userBulkLoader,
+            SessionKeyStore sessionKeyStore, DatabaseClient databaseClient, PasswordEncoder passwordEncoder,
+            @Value("${auth.seed.users:20000}") int userCount,
+            @Value("${auth.seed.random-seed:42}") long randomSeed,
+            @Value("${auth.seed.chunk-size:10000}") int chunkSize,
+            @Value("${auth.seed.parallelism:4}") int parallelism,
+            @Value("${auth.seed.refresh-tokens-per-user:1}") int refreshTokensPerUser,
+            @Value("${auth.seed.sessions:10000}") int sessionCount) {
+        this.userRepository = userRepository;
+        this.userBulkLoader = userBulkLoader;
+        this.sessionKeyStore = sessionKeyStore;
+        this.databaseClient = databaseClient;
+        this.passwordEncoder = passwordEncoder;
+        this.userCount = userCount;
+        this.randomSeed = randomSeed;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.refreshTokensPerUser = refreshTokensPerUser;
+        this.sessionCount = sessionCount;
+    }
 
     @Override
     public void run(String... args) {
         log.info("LocalAuthSeeder execution started.");
         userRepository.count()
                 .flatMap(count -> {
-                    if (count >= USER_COUNT) {
+                    if (count >= userCount) {
                         log.info("Auth database already seeded with {} users.", count);
                         return Mono.empty();
                     }
-                    log.info("Seeding {} auth records (this may take a while)...", USER_COUNT);
+                    log.info("Seeding {} users with {} refresh tokens each and {} sessions (seed {}, {} chunks "
+                            + "of {} in parallel)...", userCount, refreshTokensPerUser, sessionCount, randomSeed,
+                            parallelism, chunkSize);
                     return seedInitialData();
                 })
-                .subscribe();
+                .subscribe(null, e -> log.error("Auth seeding failed", e));
     }
 
     private Mono<Void> seedInitialData() {
@@ -59,30 +127,75 @@ public class LocalAuthSeeder implements CommandLineRunner {
                 .profileType("PREMIUM")
                 .build();
 
+        long startedAt = System.nanoTime();
+        AtomicLong users = new AtomicLong();
+        AtomicLong refreshTokens = new AtomicLong();
+        int chunks = (userCount + chunkSize - 1) / chunkSize;
+
         return userRepository.findByEmail(admin.getEmail())
                 .switchIfEmpty(userRepository.save(admin))
-                .then(Mono.defer(() -> {
-                    AtomicInteger counter = new AtomicInteger(0);
-                    return Flux.range(1, USER_COUNT)
-                            .buffer(BATCH_SIZE)
-                            .flatMap(batch -> {
-                                return userRepository.saveAll(
-                                        batch.stream().map(i -> {
-                                            String email = "user" + i + "@example.com";
-                                            return User.builder()
-                                                    .email(email)
-                                                    .name(faker.name().fullName())
-                                                    .password(encodedPassword)
-                                                    .roles(new HashSet<>(Collections.singletonList("USER")))
-                                                    .verified(true)
-                                                    .profileType("LISTENER")
-                                                    .build();
-                                        }).toList()).collectList()
-                                        .doOnNext(list -> log.info("Auth Seeding progress: {}/20000",
-                                                counter.addAndGet(list.size())));
-                            })
-                            .then();
-                }))
-                .doOnSuccess(v -> log.info("Auth seeding completed successfully."));
+                .thenMany(Flux.range(0, chunks))
+                .flatMap(chunk -> Mono.fromCallable(() -> generateUsers(chunk, encodedPassword))
+                        .subscribeOn(Schedulers.parallel())
+                        .flatMap(batch -> userBulkLoader.load(batch, false))
+                        .flatMap(inserted -> seedRefreshTokens(inserted)
+                                .doOnNext(refreshTokens::addAndGet)
+                                .thenReturn(inserted.size()))
+                        .doOnNext(inserted -> log.info("Auth Seeding progress: {}/{}", users.addAndGet(inserted),
+                                userCount)), parallelism)
+                .then(Mono.defer(() -> Flux.range(0, (sessionCount + chunkSize - 1) / chunkSize)
+                        .flatMap(chunk -> Mono.fromCallable(() -> generateSessions(chunk))
+                                .subscribeOn(Schedulers.parallel())
+                                .flatMap(sessionKeyStore::saveKeys), parallelism)
+                        .then()))
+                .doOnSuccess(v -> {
+                    long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+                    log.info("Auth seeding completed: {} users, {} refresh tokens and {} sessions in {} ms "
+                            + "({} users/s, {} rows/s)", users.get(), refreshTokens.get(), sessionCount,
+                            elapsedMillis, users.get() * 1000 / elapsedMillis,
+                            (users.get() + refreshTokens.get() + sessionCount) * 1000 / elapsedMillis);
+                });
+    }
+
+    private List<ImportedUser> generateUsers(int chunk, String encodedPassword) {
+        Faker faker = reseed(chunk);
+        int from = chunk * chunkSize + 1;
+        int to = Math.min(userCount, from + chunkSize - 1);
+        List<ImportedUser> batch = new ArrayList<>(to - from + 1);
+        for (int i = from; i <= to; i++) {
+            batch.add(new ImportedUser("user" + i + "@example.com", faker.name().fullName(), null,
+                    encodedPassword, "LISTENER", true, Set.of("USER")));
+        }
+        return batch;
+    }
+
+    private Mono<Long> seedRefreshTokens(List<String> emails) {
+        if (refreshTokensPerUser <= 0 || emails.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql(INSERT_REFRESH_TOKENS)
+                .bind("perUser", refreshTokensPerUser)
+                .bind("emails", emails.toArray(String[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Map<String, byte[]> generateSessions(int chunk) {
+        int users = Math.max(1, userCount);
+        int from = chunk * chunkSize;
+        int to = Math.min(sessionCount, from + chunkSize);
+        Map<String, byte[]> sessions = new HashMap<>((to - from) * 2);
+        for (int n = from; n < to; n++) {
+            String name = "user" + (n % users + 1) + "@example.com:" + (n / users + 1);
+            String sessionId = UUID.nameUUIDFromBytes(("seed-session:" + name).getBytes(StandardCharsets.US_ASCII))
+                    .toString();
+            sessions.put(sessionId, TokenDigests.sha256("seed-session-key:" + name));
+        }
+        return sessions;
+    }
+
+    private Faker reseed(int chunk) {
+        RANDOMS.get().setSeed(randomSeed * 31 + chunk);
+        return FAKERS.get();
     }
 }
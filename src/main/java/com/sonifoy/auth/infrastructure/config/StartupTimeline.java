@@ -0,0 +1,51 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Milestones of this instance's startup, measured from JVM (or native image)
+ * start: when it became ready and when it served its first successful login.
+ * The first login is what autoscaling actually waits for, so it is the number
+ * to compare between the plain, AOT/AppCDS and native builds.
+ */
+@Component
+@Slf4j
+public class StartupTimeline {
+
+    private final AtomicLong readyMillis = new AtomicLong(-1);
+    private final AtomicLong firstLoginMillis = new AtomicLong(-1);
+
+    public StartupTimeline(MeterRegistry meterRegistry) {
+        TimeGauge.builder("auth.startup.ready", readyMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from process start to application ready")
+                .register(meterRegistry);
+        TimeGauge.builder("auth.startup.first.login", firstLoginMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from process start to the first successful login")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        readyMillis.set(uptimeMillis());
+        log.info("Ready {} ms after process start", readyMillis.get());
+    }
+
+    public void loginSucceeded() {
+        if (firstLoginMillis.get() < 0 && firstLoginMillis.compareAndSet(-1, uptimeMillis())) {
+            log.info("First successful login {} ms after process start", firstLoginMillis.get());
+        }
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,59 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import com.sonifoy.auth.application.dto.UserImportReport;
+import com.sonifoy.auth.application.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * One-shot import: {@code --auth.import.file=users.csv} (or {@code .ndjson} /
+ * {@code .jsonl}) loads the file, logs the report and exits. The runner is
+ * always defined and does nothing without the argument: a condition on it
+ * would be settled when AOT processing runs, not when the service starts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportRunner implements CommandLineRunner {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final UserImportService userImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${auth.import.file:}")
+    private String file;
+
+    @Value("${auth.import.timeout:PT2H}")
+    private Duration timeout;
+
+    @Override
+    public void run(String... args) {
+        if (file.isBlank()) {
+            return;
+        }
+        Path file = Path.of(this.file);
+        UserImportService.Format format = file.getFileName().toString().toLowerCase().endsWith(".csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        log.info("Importing users from {} as {}", file, format);
+        UserImportReport report = userImportService
+                .importUsers(DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE),
+                        format)
+                .block(timeout);
+        log.info("Imported {} of {} users from {}: {} duplicates, {} rejected, {} hashing retries on overload, {} rows/s",
+                report.inserted(), report.received(), file, report.duplicates(), report.rejected(), report.throttled(),
+                report.rowsPerSecond());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,130 @@
+package com.sonifoy.auth.infrastructure.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.SimpleLocaleContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.AbstractServerHttpRequest;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.SslInfo;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Minimal in-memory exchanges for driving web filters during warm-up, without
+ * a server or spring-test's mock types. Response bodies are drained and
+ * counted, not kept.
+ */
+final class WarmupExchanges {
+
+    private static final ServerCodecConfigurer CODECS = ServerCodecConfigurer.create();
+    private static final LocaleContextResolver LOCALE = new LocaleContextResolver() {
+        @Override
+        public LocaleContext resolveLocaleContext(ServerWebExchange exchange) {
+            return new SimpleLocaleContext(Locale.ROOT);
+        }
+
+        @Override
+        public void setLocaleContext(ServerWebExchange exchange, LocaleContext localeContext) {
+        }
+    };
+
+    private WarmupExchanges() {
+    }
+
+    static ServerWebExchange post(String path, HttpHeaders headers, byte[] body) {
+        return new DefaultServerWebExchange(new Request(path, headers, body), new Response(),
+                new DefaultWebSessionManager(), CODECS, LOCALE);
+    }
+
+    /**
+     * Bytes written to the exchange's response.
+     */
+    static long writtenBytes(ServerWebExchange exchange) {
+        return ((Response) exchange.getResponse()).written;
+    }
+
+    private static final class Request extends AbstractServerHttpRequest {
+        private final byte[] body;
+
+        Request(String path, HttpHeaders headers, byte[] body) {
+            super(HttpMethod.POST, URI.create(path), "", headers);
+            this.body = body;
+        }
+
+        @Override
+        protected MultiValueMap<String, HttpCookie> initCookies() {
+            return new LinkedMultiValueMap<>();
+        }
+
+        @Override
+        protected SslInfo initSslInfo() {
+            return null;
+        }
+
+        @Override
+        public <T> T getNativeRequest() {
+            throw new IllegalStateException("Warm-up requests have no native request");
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+        }
+    }
+
+    private static final class Response extends AbstractServerHttpResponse {
+        private long written;
+
+        Response() {
+            super(DefaultDataBufferFactory.sharedInstance);
+        }
+
+        @Override
+        public <T> T getNativeResponse() {
+            throw new IllegalStateException("Warm-up responses have no native response");
+        }
+
+        @Override
+        protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+            return Flux.from(body)
+                    .doOnNext(buffer -> {
+                        written += buffer.readableByteCount();
+                        DataBufferUtils.release(buffer);
+                    })
+                    .then();
+        }
+
+        @Override
+        protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return Flux.from(body).concatMap(this::writeWithInternal).then();
+        }
+
+        @Override
+        protected void applyStatusCode() {
+        }
+
+        @Override
+        protected void applyHeaders() {
+        }
+
+        @Override
+        protected void applyCookies() {
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-node Bloom filter of registered emails. A miss means the email is not
+ * taken as far as this node knows, so registration can skip the existence
+ * query; a hit still has to be confirmed against the database. The filter is
+ * filled by streaming {@code users} at startup and kept current through local
+ * registrations and a Redis channel carrying other nodes' registrations. Until
+ * the initial load completes every lookup reports a possible hit.
+ */
+@Component
+@Slf4j
+public class EmailBloomFilter {
+
+    static final String REGISTRATIONS_CHANNEL = "users:email:registered";
+
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final AtomicLong insertions = new AtomicLong();
+    private final Counter misses;
+    private final Counter hits;
+    private final Counter falsePositives;
+    private volatile boolean loaded;
+    private Disposable registrationSubscription;
+
+    public EmailBloomFilter(DatabaseClient databaseClient, ReactiveRedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${auth.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.databaseClient = databaseClient;
+        this.redisTemplate = redisTemplate;
+
+        // Standard sizing: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        Gauge.builder("auth.users.email.filter.memory", this, f -> f.bitCount / 8.0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.users.email.filter.insertions", insertions, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("auth.users.email.filter.false.positive.rate", this, EmailBloomFilter::expectedFalsePositiveRate)
+                .description("Estimated false positive rate at the current number of insertions")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.users.email.filter.lookups").tag("result", "miss").register(meterRegistry);
+        this.hits = Counter.builder("auth.users.email.filter.lookups").tag("result", "hit").register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.users.email.filter.false.positives")
+                .description("Hits that the database then reported as not taken")
+                .register(meterRegistry);
+
+        log.info("Email Bloom filter sized at {} KiB with {} hash functions for {} emails at {} false positives",
+                bitCount / 8 / 1024, hashFunctions, expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void subscribeToRegistrations() {
+        registrationSubscription = redisTemplate.listenToChannel(REGISTRATIONS_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(message -> message.lines().forEach(this::put))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Email registration channel failed, resubscribing: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (registrationSubscription != null) {
+            registrationSubscription.dispose();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.nanoTime();
+        databaseClient.sql("SELECT email FROM users")
+                .filter(statement -> statement.fetchSize(LOAD_FETCH_SIZE))
+                .map(row -> row.get("email", String.class))
+                .all()
+                .doOnNext(this::put)
+                .count()
+                .subscribe(
+                        count -> {
+                            loaded = true;
+                            log.info("Loaded {} emails into the Bloom filter in {} ms (estimated false positive "
+                                    + "rate {})", count, (System.nanoTime() - startedAt) / 1_000_000,
+                                    expectedFalsePositiveRate());
+                        },
+                        e -> log.error("Email Bloom filter load failed; every registration checks the database",
+                                e));
+    }
+
+    /**
+     * False only when the email is definitely not registered as far as this node knows.
+     */
+    public boolean mightContain(String email) {
+        if (!loaded) {
+            return true;
+        }
+        long[] hashes = hash(email);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(hashes, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                misses.increment();
+                return false;
+            }
+        }
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Adds a newly registered email here and on every other node.
+     */
+    public Mono<Void> add(String email) {
+        put(email);
+        return redisTemplate.convertAndSend(REGISTRATIONS_CHANNEL, email).then();
+    }
+
+    /**
+     * Adds a batch of newly registered emails, broadcast as one newline-separated message.
+     */
+    public Mono<Void> addAll(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Mono.empty();
+        }
+        emails.forEach(this::put);
+        return redisTemplate.convertAndSend(REGISTRATIONS_CHANNEL, String.join("\n", emails)).then();
+    }
+
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    private void put(String email) {
+        long[] hashes = hash(email);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(hashes, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    private double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions.get() / bitCount), hashFunctions);
+    }
+
+    // Kirsch-Mitzenmacher: the i-th hash is h1 + i * h2
+    private long index(long[] hashes, int i) {
+        return Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+    }
+
+    /**
+     * 128-bit MurmurHash3 (x64 variant) of the UTF-8 bytes, as two 64-bit halves.
+     */
+    private static long[] hash(String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h1 = 0;
+        long h2 = 0;
+        int blocks = data.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i * 16);
+            long k2 = getLong(data, i * 16 + 8);
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+            h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+            h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = data.length - tail - 1; i >= 0; i--) {
+            long b = data[tail + i] & 0xffL;
+            if (i >= 8) {
+                k2 |= b << ((i - 8) * 8);
+            } else {
+                k1 |= b << (i * 8);
+            }
+        }
+        if (k2 != 0) {
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+        }
+        if (k1 != 0) {
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+        }
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[] {h1, h2};
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xffL);
+        }
+        return value;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9f53fe5a18bL;
+        k ^= k >>> 33;
+        return k;
+    }
+}
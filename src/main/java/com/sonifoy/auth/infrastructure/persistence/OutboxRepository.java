@@ -0,0 +1,157 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import com.sonifoy.auth.domain.model.OutboxRecord;
+import com.sonifoy.auth.infrastructure.config.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class OutboxRepository {
+
+    // Rows are leased rather than locked for the duration of the publish, so no
+    // transaction stays open while Kafka is slow; SKIP LOCKED keeps replicas apart.
+    // attempts only counts claims: it drives the retry backoff, never a cap
+    private static final String CLAIM_BATCH = """
+            WITH claimed AS (
+                SELECT id FROM outbox
+                WHERE sent_at IS NULL
+                  AND dead_at IS NULL
+                  AND (claimed_until IS NULL OR claimed_until < LOCALTIMESTAMP)
+                ORDER BY id
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE outbox o
+            SET claimed_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds),
+                attempts = o.attempts + 1
+            FROM claimed
+            WHERE o.id = claimed.id
+            RETURNING o.id, o.event_type, o.message_key, o.payload, o.created_at
+            """;
+
+    // Exponential in the number of claims so far, capped at :maxSeconds
+    private static final String RETRY_LATER = """
+            UPDATE outbox
+            SET claimed_until = LOCALTIMESTAMP + make_interval(
+                    secs => LEAST(:maxSeconds, :baseSeconds * power(2, LEAST(attempts, 30) - 1)))
+            WHERE id = ANY(:ids) AND sent_at IS NULL
+            """;
+
+    private static final String RECORD_FAILURE = """
+            UPDATE outbox
+            SET failures = failures + 1,
+                last_error = left(:error, 500),
+                dead_at = CASE WHEN failures + 1 >= :maxFailures THEN LOCALTIMESTAMP END,
+                claimed_until = LOCALTIMESTAMP + make_interval(secs => :retrySeconds)
+            WHERE id = :id
+            RETURNING dead_at IS NOT NULL AS dead
+            """;
+
+    private final DatabaseClient databaseClient;
+    // Repository interfaces are timed by Spring Data (spring.data.repository.invocations); this class
+    // uses DatabaseClient directly, so the append on the registration path is timed here
+    private final OperationTimer appendTimer;
+
+    public OutboxRepository(DatabaseClient databaseClient, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.appendTimer = OperationTimer.register(meterRegistry, "auth.r2dbc", "Latency of a database call",
+                "query", "outbox_append");
+    }
+
+    /**
+     * Appends an event; joins the caller's reactive transaction when there is one.
+     */
+    public Mono<Void> append(String eventType, String messageKey, String payload) {
+        return databaseClient.sql("INSERT INTO outbox (event_type, message_key, payload) "
+                + "VALUES (:eventType, :messageKey, :payload)")
+                .bind("eventType", eventType)
+                .bind("messageKey", messageKey)
+                .bind("payload", payload)
+                .fetch()
+                .rowsUpdated()
+                .then()
+                .as(appendTimer::time);
+    }
+
+    public Flux<OutboxRecord> claimBatch(int batchSize, Duration lease) {
+        return databaseClient.sql(CLAIM_BATCH)
+                .bind("batchSize", batchSize)
+                .bind("leaseSeconds", (double) lease.toSeconds())
+                .map((row, metadata) -> new OutboxRecord(
+                        row.get("id", Long.class),
+                        row.get("event_type", String.class),
+                        row.get("message_key", String.class),
+                        row.get("payload", String.class),
+                        row.get("created_at", LocalDateTime.class)))
+                .all();
+    }
+
+    public Mono<Long> markSent(List<Long> ids) {
+        return databaseClient.sql("UPDATE outbox SET sent_at = LOCALTIMESTAMP, claimed_until = NULL "
+                + "WHERE id = ANY(:ids)")
+                .bind("ids", ids.toArray(new Long[0]))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Hands claimed rows back after a failed publish, to be claimed again once
+     * the backoff for their attempt count has passed. There is no retry limit:
+     * transport failures say nothing about the rows themselves.
+     */
+    public Mono<Long> retryLater(List<Long> ids, Duration baseBackoff, Duration maxBackoff) {
+        return databaseClient.sql(RETRY_LATER)
+                .bind("ids", ids.toArray(new Long[0]))
+                .bind("baseSeconds", baseBackoff.toMillis() / 1000.0)
+                .bind("maxSeconds", maxBackoff.toMillis() / 1000.0)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Records a failure that lies in the row itself and emits {@code true} when
+     * that moved it to the dead letters.
+     */
+    public Mono<Boolean> recordFailure(long id, String error, int maxFailures, Duration retryAfter) {
+        return databaseClient.sql(RECORD_FAILURE)
+                .bind("id", id)
+                .bind("error", error)
+                .bind("maxFailures", maxFailures)
+                .bind("retrySeconds", retryAfter.toMillis() / 1000.0)
+                .map((row, metadata) -> row.get("dead", Boolean.class))
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Number of unsent rows, the age in seconds of the oldest one, and the
+     * number of dead letters.
+     */
+    public Mono<PendingStats> pendingStats() {
+        return databaseClient.sql("SELECT count(*) FILTER (WHERE dead_at IS NULL) AS pending, "
+                + "COALESCE(EXTRACT(EPOCH FROM (LOCALTIMESTAMP - min(created_at) FILTER (WHERE dead_at IS NULL))), 0)"
+                + "::BIGINT AS lag, "
+                + "count(*) FILTER (WHERE dead_at IS NOT NULL) AS dead "
+                + "FROM outbox WHERE sent_at IS NULL")
+                .map((row, metadata) -> new PendingStats(row.get("pending", Long.class), row.get("lag", Long.class),
+                        row.get("dead", Long.class)))
+                .one();
+    }
+
+    public Mono<Long> purgeSent(Duration retention) {
+        return databaseClient.sql("DELETE FROM outbox WHERE sent_at < LOCALTIMESTAMP - make_interval(secs => :secs)")
+                .bind("secs", (double) retention.toSeconds())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public record PendingStats(long pending, long lagSeconds, long dead) {
+    }
+}
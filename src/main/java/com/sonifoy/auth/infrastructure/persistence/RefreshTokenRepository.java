@@ -1,15 +1,41 @@
 package com.sonifoy.auth.infrastructure.persistence;
 
 import com.sonifoy.auth.domain.model.RefreshToken;
+import com.sonifoy.auth.domain.model.User;
 import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 public interface RefreshTokenRepository extends R2dbcRepository<RefreshToken, Long> {
-    Mono<RefreshToken> findByToken(String token);
+    String ROTATE = "WITH revoked AS ("
+            + "UPDATE refresh_tokens SET is_revoked = true "
+            + "WHERE token_hash = :tokenHash AND is_revoked = false AND expires_at > LOCALTIMESTAMP "
+            + "RETURNING user_id, user_email"
+            + "), issued AS ("
+            + "INSERT INTO refresh_tokens (token_hash, user_id, user_email, expires_at, is_revoked, created_at) "
+            + "SELECT :newTokenHash, user_id, user_email, :expiresAt, false, LOCALTIMESTAMP FROM revoked "
+            + "RETURNING user_id, user_email"
+            + ") "
+            // Scalar subqueries let the executor prune users down to the one email partition
+            + "SELECT u.* FROM users u "
+            + "WHERE u.email = (SELECT user_email FROM issued) AND u.id = (SELECT user_id FROM issued)";
+
+    Mono<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Revokes the live token with {@code tokenHash} and issues its replacement in
+     * one statement, returning the owning user. The row lock taken by the UPDATE
+     * makes concurrent rotations of the same token serialize: the first one wins
+     * and the others re-check {@code is_revoked} and return nothing.
+     */
+    @Query(ROTATE)
+    Mono<User> rotate(byte[] tokenHash, byte[] newTokenHash, LocalDateTime expiresAt);
 
     @Modifying
-    @Query("UPDATE refresh_tokens SET revoked = true WHERE user_id = :userId")
-    Mono<Void> revokeAllByUserId(String userId);
+    @Query("UPDATE refresh_tokens SET is_revoked = true "
+            + "WHERE user_id = :userId AND is_revoked = false AND expires_at > LOCALTIMESTAMP")
+    Mono<Integer> revokeAllByUserId(Long userId);
 }
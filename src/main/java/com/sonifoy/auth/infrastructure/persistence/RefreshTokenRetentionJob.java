@@ -0,0 +1,97 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps {@code refresh_tokens} bounded. The table is range-partitioned by day
+ * of {@code expires_at}; this job creates partitions {@code partitions-ahead}
+ * days in advance and drops partitions whose tokens have all expired, so
+ * expired and revoked rows are reclaimed without row-by-row deletes or vacuum
+ * work. Both steps are SQL functions defined in migration V2 and
+ * serialize across replicas on an advisory lock.
+ */
+@Component
+@Slf4j
+public class RefreshTokenRetentionJob {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+    private final DatabaseClient databaseClient;
+    private final int partitionsAhead;
+    private final Counter partitionsCreated;
+    private final Counter partitionsDropped;
+    private final Counter reclaimedRows;
+    private final Counter reclaimedBytes;
+
+    public RefreshTokenRetentionJob(DatabaseClient databaseClient, MeterRegistry meterRegistry,
+            @Value("${auth.refresh-tokens.partitions-ahead:14}") int partitionsAhead) {
+        this.databaseClient = databaseClient;
+        this.partitionsAhead = partitionsAhead;
+        this.partitionsCreated = Counter.builder("auth.refresh.tokens.partitions.created")
+                .register(meterRegistry);
+        this.partitionsDropped = Counter.builder("auth.refresh.tokens.partitions.dropped")
+                .register(meterRegistry);
+        this.reclaimedRows = Counter.builder("auth.refresh.tokens.reclaimed.rows")
+                .description("Estimated refresh token rows removed with dropped partitions")
+                .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("auth.refresh.tokens.reclaimed.bytes")
+                .description("Table and index bytes released by dropped partitions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-tokens.maintenance-interval:PT1H}")
+    public void maintain() {
+        try {
+            Integer created = databaseClient.sql("SELECT refresh_tokens_create_partitions(:daysAhead) AS created")
+                    .bind("daysAhead", partitionsAhead)
+                    .map(row -> row.get("created", Integer.class))
+                    .one()
+                    .block(TIMEOUT);
+            if (created != null && created > 0) {
+                partitionsCreated.increment(created);
+                log.info("Created {} refresh_tokens partitions", created);
+            }
+
+            List<DroppedPartition> dropped = databaseClient
+                    .sql("SELECT partition_name, reclaimed_rows, reclaimed_bytes "
+                            + "FROM refresh_tokens_drop_expired_partitions()")
+                    .map(row -> new DroppedPartition(row.get("partition_name", String.class),
+                            row.get("reclaimed_rows", Long.class), row.get("reclaimed_bytes", Long.class)))
+                    .all()
+                    .collectList()
+                    .block(TIMEOUT);
+            if (dropped == null || dropped.isEmpty()) {
+                log.debug("No expired refresh_tokens partitions to drop");
+                return;
+            }
+
+            long rows = 0;
+            long bytes = 0;
+            for (DroppedPartition partition : dropped) {
+                log.info("Dropped {}: ~{} rows, {} bytes", partition.name(), partition.rows(), partition.bytes());
+                rows += partition.rows();
+                bytes += partition.bytes();
+            }
+            partitionsDropped.increment(dropped.size());
+            reclaimedRows.increment(rows);
+            reclaimedBytes.increment(bytes);
+            log.info("Refresh token retention reclaimed {} partitions, ~{} rows, {} bytes",
+                    dropped.size(), rows, bytes);
+        } catch (Exception e) {
+            log.warn("Refresh token partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private record DroppedPartition(String name, long rows, long bytes) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.r2dbc.BadSqlGrammarException;
+import org.springframework.r2dbc.connection.init.ScriptUtils;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned scripts under {@code db/migration} ({@code V<n>__<description>.sql})
+ * before the application starts serving. Applied versions and the SHA-256 of
+ * their scripts are recorded in {@code schema_version}; when every script is
+ * already recorded the check is a single query and no DDL or locks are taken.
+ * Pending scripts run one transaction each under an advisory lock, so replicas
+ * starting together apply each version exactly once. A recorded script whose
+ * content has since changed fails startup. Nothing is checked in a training
+ * run ({@code auth.startup.training-run}), which starts without a database.
+ */
+@Component
+@Slf4j
+public class SchemaMigrator {
+
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(hashtext('schema_version'))";
+
+    private static final String CREATE_HISTORY = """
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version INT PRIMARY KEY,
+                description VARCHAR(200) NOT NULL,
+                checksum VARCHAR(64) NOT NULL,
+                execution_ms BIGINT NOT NULL,
+                installed_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+            )
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration timeout;
+    private final boolean trainingRun;
+    private final Timer currentTimer;
+    private final Timer migratedTimer;
+
+    public SchemaMigrator(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+            MeterRegistry meterRegistry,
+            @Value("${auth.schema.migration-timeout:PT10M}") Duration timeout,
+            @Value("${auth.startup.training-run:false}") boolean trainingRun) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.timeout = timeout;
+        this.trainingRun = trainingRun;
+        this.currentTimer = Timer.builder("auth.schema.migration")
+                .description("Startup schema check, including any migrations it applied")
+                .tag("outcome", "current")
+                .register(meterRegistry);
+        this.migratedTimer = Timer.builder("auth.schema.migration")
+                .description("Startup schema check, including any migrations it applied")
+                .tag("outcome", "migrated")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (trainingRun) {
+            log.info("Training run: schema migrations are not checked");
+            return;
+        }
+        long startedAt = System.nanoTime();
+        List<Migration> migrations = scripts();
+        Map<Integer, String> applied = appliedChecksums().block(timeout);
+
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum == null) {
+                pending.add(migration);
+            } else if (!checksum.equals(migration.checksum())) {
+                throw new IllegalStateException("Migration V" + migration.version() + " (" + migration.description()
+                        + ") was changed after it was applied; add a new version instead");
+            }
+        }
+        applied.keySet().stream()
+                .filter(version -> migrations.stream().noneMatch(m -> m.version() == version))
+                .forEach(version -> log.warn("Schema version {} is applied but unknown to this build", version));
+
+        if (pending.isEmpty()) {
+            long elapsedNanos = System.nanoTime() - startedAt;
+            currentTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            log.info("Schema is current at version {} ({} migrations checked in {} ms)",
+                    migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version(), migrations.size(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            return;
+        }
+
+        Flux.fromIterable(pending)
+                .concatMap(this::apply)
+                .then()
+                .block(timeout);
+        long elapsedNanos = System.nanoTime() - startedAt;
+        migratedTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        log.info("Schema migrated to version {} in {} ms", pending.get(pending.size() - 1).version(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private Mono<Map<Integer, String>> appliedChecksums() {
+        return databaseClient.sql("SELECT version, checksum FROM schema_version")
+                .map(row -> Map.entry(row.get("version", Integer.class), row.get("checksum", String.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                // No history table yet: a new database, or one set up by the old schema.sql
+                .onErrorResume(BadSqlGrammarException.class, e -> Mono.just(Map.of()));
+    }
+
+    /**
+     * Runs one migration and records it, unless another replica applied it
+     * while this one waited for the lock.
+     */
+    private Mono<Void> apply(Migration migration) {
+        Mono<Void> run = databaseClient.sql(LOCK).then()
+                .then(databaseClient.sql(CREATE_HISTORY).then())
+                .then(databaseClient.sql("SELECT 1 FROM schema_version WHERE version = :version")
+                        .bind("version", migration.version())
+                        .fetch()
+                        .first()
+                        .hasElement())
+                .flatMap(alreadyApplied -> {
+                    if (alreadyApplied) {
+                        log.info("Migration V{} was applied by another instance", migration.version());
+                        return Mono.empty();
+                    }
+                    long startedAt = System.nanoTime();
+                    return databaseClient.inConnection(connection ->
+                                    ScriptUtils.executeSqlScript(connection, migration.script()))
+                            .then(Mono.defer(() -> {
+                                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                                log.info("Applied migration V{} ({}) in {} ms", migration.version(),
+                                        migration.description(), elapsedMillis);
+                                return databaseClient.sql("INSERT INTO schema_version "
+                                                + "(version, description, checksum, execution_ms) "
+                                                + "VALUES (:version, :description, :checksum, :executionMs)")
+                                        .bind("version", migration.version())
+                                        .bind("description", migration.description())
+                                        .bind("checksum", migration.checksum())
+                                        .bind("executionMs", elapsedMillis)
+                                        .then();
+                            }));
+                });
+        return transactionalOperator.transactional(run);
+    }
+
+    private static List<Migration> scripts() {
+        try {
+            List<Migration> migrations = new ArrayList<>();
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                Matcher name = SCRIPT_NAME.matcher(resource.getFilename());
+                if (!name.matches()) {
+                    continue;
+                }
+                // Line endings are normalized so a checkout with CRLF does not look like an edited script
+                String content = new String(resource.getContentAsByteArray(), StandardCharsets.UTF_8)
+                        .replace("\r\n", "\n");
+                byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+                migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                        HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)),
+                        new ByteArrayResource(bytes, resource.getFilename())));
+            }
+            migrations.sort(Comparator.comparingInt(Migration::version));
+            for (int i = 1; i < migrations.size(); i++) {
+                if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                    throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version());
+                }
+            }
+            return migrations;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read migrations from " + LOCATION, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Migration(int version, String description, String checksum, Resource script) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import com.sonifoy.auth.application.dto.ImportedUser;
+import com.sonifoy.auth.infrastructure.adapter.out.messaging.UserEventOutbox;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Wrapped;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads users in bulk through {@code COPY FROM STDIN}. Each chunk is copied into
+ * a transaction-scoped staging table and moved into {@code users} with
+ * {@code ON CONFLICT (email) DO NOTHING}, so existing emails are skipped rather
+ * than failing the whole chunk. Unless the caller opts out, a
+ * {@code UserRegistered} outbox row is written for every inserted user in the
+ * same statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBulkLoader {
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE users_import (
+                email VARCHAR(255), name VARCHAR(255), password VARCHAR(255),
+                profile_type VARCHAR(50), verified BOOLEAN, roles TEXT[]
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING =
+            "COPY users_import (email, name, password, profile_type, verified, roles) FROM STDIN (FORMAT csv)";
+
+    private static final String MOVE_STAGED = """
+            WITH inserted AS (
+                INSERT INTO users (email, name, password, profile_type, verified, roles, created_at, updated_at)
+                SELECT email, name, password, profile_type, COALESCE(verified, false), roles, LOCALTIMESTAMP,
+                       LOCALTIMESTAMP
+                FROM users_import
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id, email, name, profile_type
+            ), events AS (
+                INSERT INTO outbox (event_type, message_key, payload)
+                SELECT $1, id::TEXT, json_build_object(
+                    'userId', id::TEXT, 'email', email, 'name', name, 'profileType', profile_type,
+                    'timestamp', to_char(now() AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"'))::TEXT
+                FROM inserted
+            )
+            SELECT email FROM inserted
+            """;
+
+    private static final String MOVE_STAGED_WITHOUT_EVENTS = """
+            INSERT INTO users (email, name, password, profile_type, verified, roles, created_at, updated_at)
+            SELECT email, name, password, profile_type, COALESCE(verified, false), roles, LOCALTIMESTAMP,
+                   LOCALTIMESTAMP
+            FROM users_import
+            ON CONFLICT (email) DO NOTHING
+            RETURNING email
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Copies one chunk in its own transaction and returns the emails that were
+     * inserted; the others already existed.
+     */
+    public Mono<List<String>> load(List<ImportedUser> users) {
+        return load(users, true);
+    }
+
+    /**
+     * As {@link #load(List)}; without {@code publishEvents} no outbox rows are
+     * written, for synthetic data that downstream services must not see.
+     */
+    public Mono<List<String>> load(List<ImportedUser> users, boolean publishEvents) {
+        return databaseClient.inConnection(connection -> {
+            PostgresqlConnection postgres = unwrap(connection);
+            Flux<ByteBuf> rows = Flux.fromIterable(users)
+                    .map(user -> Unpooled.wrappedBuffer(csvLine(user).getBytes(StandardCharsets.UTF_8)));
+            return Mono.from(postgres.beginTransaction())
+                    .then(execute(postgres, CREATE_STAGING))
+                    .then(Mono.defer(() -> postgres.copyIn(COPY_STAGING, rows)))
+                    .then(Flux.defer(() -> publishEvents
+                                    ? postgres.createStatement(MOVE_STAGED)
+                                            .bind("$1", UserEventOutbox.USER_REGISTERED)
+                                            .execute()
+                                    : postgres.createStatement(MOVE_STAGED_WITHOUT_EVENTS).execute())
+                            .flatMap(result -> result.map((row, metadata) -> row.get("email", String.class)))
+                            .collectList())
+                    .flatMap(inserted -> Mono.from(postgres.commitTransaction()).thenReturn(inserted))
+                    .onErrorResume(e -> Mono.from(postgres.rollbackTransaction()).then(Mono.error(e)));
+        });
+    }
+
+    private static Mono<Void> execute(PostgresqlConnection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(Result::getRowsUpdated)
+                .then();
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped) {
+            current = wrapped.unwrap();
+        }
+        if (current instanceof PostgresqlConnection postgres) {
+            return postgres;
+        }
+        throw new IllegalStateException("COPY needs a PostgreSQL connection, got " + connection.getClass());
+    }
+
+    // Empty unquoted fields are NULL in COPY csv format; everything else is quoted
+    private static String csvLine(ImportedUser user) {
+        StringBuilder line = new StringBuilder(128);
+        appendField(line, user.email()).append(',');
+        appendField(line, user.name()).append(',');
+        appendField(line, user.passwordHash()).append(',');
+        appendField(line, user.profileType()).append(',');
+        appendField(line, user.verified() == null ? null : user.verified().toString()).append(',');
+        appendField(line, arrayLiteral(user.roles())).append('\n');
+        return line.toString();
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String arrayLiteral(Set<String> values) {
+        if (values == null) {
+            return null;
+        }
+        StringBuilder literal = new StringBuilder("{");
+        for (String value : values) {
+            if (literal.length() > 1) {
+                literal.append(',');
+            }
+            literal.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return literal.append('}').toString();
+    }
+}
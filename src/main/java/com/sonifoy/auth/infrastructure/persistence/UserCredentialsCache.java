@@ -0,0 +1,207 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sonifoy.auth.domain.model.UserCredentials;
+import com.sonifoy.auth.infrastructure.config.OperationTimer;
+import com.sonifoy.auth.infrastructure.security.JwtService;
+import com.sonifoy.auth.infrastructure.security.crypto.CryptoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through cache of {@link UserCredentials} by email: a bounded local
+ * cache in front of Redis in front of Postgres, so repeat logins of the same
+ * account skip the database. Callers invalidate after every user update;
+ * invalidations are broadcast so every node drops its local copy. Only
+ * existing accounts are cached. Redis calls are timed as {@code auth.redis}
+ * with {@code store=user_credentials}.
+ * <p>
+ * A load that is in flight when the entry is invalidated must not bring the
+ * old row back. Locally, misses load through the cache as futures, and an
+ * invalidation drops the in-flight load with the entry. In Redis, every
+ * invalidation bumps a per-email version; a load reads the version before
+ * the row and stores the row only if the version is unchanged and no entry
+ * exists (SET NX). Redis values hold a password hash, so they are encrypted
+ * with a key derived from {@code jwt.secret}.
+ */
+@Component
+@Slf4j
+public class UserCredentialsCache {
+
+    static final String INVALIDATION_CHANNEL = "user:credentials:invalidate";
+    // Hash tags keep an entry and its version in one cluster slot for the scripts below
+    private static final String KEY_PREFIX = "user:credentials:{";
+    private static final String VERSION_KEY_PREFIX = "user:credentials:version:{";
+    // A version read failed: the row is still returned, but not stored in Redis
+    private static final String UNKNOWN_VERSION = "";
+
+    private static final RedisScript<Long> WRITE_IF_CURRENT = RedisScript.of("""
+            if (redis.call('get', KEYS[2]) or '0') ~= ARGV[1] then return 0 end
+            if redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3], 'NX') then return 1 end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> INVALIDATE = RedisScript.of("""
+            redis.call('incr', KEYS[2])
+            redis.call('pexpire', KEYS[2], ARGV[1])
+            return redis.call('del', KEYS[1])
+            """, Long.class);
+
+    private final UserRepository userRepository;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final CryptoService cryptoService;
+    private final AsyncCache<String, UserCredentials> cache;
+    private final Duration redisTtl;
+    private final byte[] valueKey;
+    private final OperationTimer redisGetTimer;
+    private final OperationTimer redisSetTimer;
+    private final OperationTimer redisInvalidateTimer;
+    private Disposable invalidationSubscription;
+
+    public UserCredentialsCache(UserRepository userRepository,
+            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            ObjectMapper objectMapper, CryptoService cryptoService, MeterRegistry meterRegistry,
+            @Value("${jwt.secret:}") String secret,
+            @Value("${auth.startup.training-run:false}") boolean trainingRun,
+            @Value("${auth.users.credentials-cache.maximum-size:50000}") long maximumSize,
+            @Value("${auth.users.credentials-cache.local-ttl:1m}") Duration localTtl,
+            @Value("${auth.users.credentials-cache.redis-ttl:10m}") Duration redisTtl) throws Exception {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.cryptoService = cryptoService;
+        this.redisTtl = redisTtl;
+        // A training run never reads or writes Redis, and is built without deployment secrets
+        this.valueKey = trainingRun ? null
+                : cryptoService.deriveKey("user-credentials-cache:" + JwtService.requireSecret(secret));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userCredentials");
+        this.redisGetTimer = redisTimer(meterRegistry, "get");
+        this.redisSetTimer = redisTimer(meterRegistry, "set");
+        this.redisInvalidateTimer = redisTimer(meterRegistry, "invalidate");
+    }
+
+    private static OperationTimer redisTimer(MeterRegistry meterRegistry, String operation) {
+        return OperationTimer.register(meterRegistry, "auth.redis", "Latency of a Redis call",
+                "store", "user_credentials", "operation", operation);
+    }
+
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        invalidationSubscription = redisTemplate.listenToChannel(INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(cache.synchronous()::invalidate)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            log.warn("User credentials invalidation channel failed, resubscribing: {}",
+                                    signal.failure().getMessage());
+                            cache.synchronous().invalidateAll();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    public Mono<UserCredentials> get(String email) {
+        // An unknown email completes with null, which the cache does not keep. Cancelling one
+        // caller must not cancel the load other callers share
+        return Mono.fromFuture(cache.get(email, (key, executor) -> load(key).toFuture()), true);
+    }
+
+    /**
+     * Drops the entry here, in Redis and on every other node, and stops loads
+     * already in flight from storing what they read.
+     */
+    public Mono<Void> invalidate(String email) {
+        cache.synchronous().invalidate(email);
+        return redisTemplate.execute(INVALIDATE, List.of(entryKey(email), versionKey(email)),
+                        List.of(String.valueOf(redisTtl.toMillis())))
+                .then(Mono.fromRunnable(() -> cache.synchronous().invalidate(email)))
+                .then(redisTemplate.convertAndSend(INVALIDATION_CHANNEL, email))
+                .then()
+                .as(redisInvalidateTimer::time)
+                .onErrorResume(e -> {
+                    log.warn("Credentials cache invalidation failed for {}: {}", email, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<UserCredentials> load(String email) {
+        return redisTemplate.opsForValue().get(entryKey(email))
+                .as(redisGetTimer::time)
+                .flatMap(value -> Mono.fromCallable(() -> decode(value)))
+                .onErrorResume(e -> {
+                    log.warn("Credentials cache read failed for {}: {}", email, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> loadFromDatabase(email)));
+    }
+
+    private Mono<UserCredentials> loadFromDatabase(String email) {
+        // The version is read before the row, so an invalidation after this point is always seen
+        return redisTemplate.opsForValue().get(versionKey(email))
+                .defaultIfEmpty("0")
+                .onErrorResume(e -> Mono.just(UNKNOWN_VERSION))
+                .flatMap(version -> userRepository.findCredentialsByEmail(email)
+                        .flatMap(credentials -> UNKNOWN_VERSION.equals(version)
+                                ? Mono.just(credentials)
+                                : writeToRedis(credentials, version)));
+    }
+
+    private Mono<UserCredentials> writeToRedis(UserCredentials credentials, String version) {
+        String email = credentials.email();
+        return Mono.fromCallable(() -> encode(credentials))
+                .flatMap(value -> redisTemplate.execute(WRITE_IF_CURRENT, List.of(entryKey(email), versionKey(email)),
+                                List.of(version, value, String.valueOf(redisTtl.toMillis())))
+                        .then()
+                        .as(redisSetTimer::time))
+                .onErrorResume(e -> {
+                    log.warn("Credentials cache write failed for {}: {}", email, e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(credentials);
+    }
+
+    private String encode(UserCredentials credentials) throws Exception {
+        return cryptoService.encrypt(objectMapper.writeValueAsString(credentials), valueKey);
+    }
+
+    private UserCredentials decode(String value) throws Exception {
+        return objectMapper.readValue(cryptoService.decrypt(value, valueKey), UserCredentials.class);
+    }
+
+    private static String entryKey(String email) {
+        return KEY_PREFIX + email + "}";
+    }
+
+    private static String versionKey(String email) {
+        return VERSION_KEY_PREFIX + email + "}";
+    }
+}
@@ -0,0 +1,164 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonifoy.auth.infrastructure.security.TokenDigests;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Runs {@code EXPLAIN ANALYZE} for every hot-path statement against
+ * {@code users} and fails startup if any of them executes a scan on more than
+ * one hash partition. The statements are the repositories' own query
+ * constants, so the check follows them as they change. They run against a
+ * sample user inside a transaction that is always rolled back. Enabled with
+ * {@code auth.users.partition-check.enabled} for local and CI databases.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.users.partition-check.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class UserPartitionPlanCheck {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern USERS_PARTITION = Pattern.compile("users_p\\d+");
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        Map<String, Object> sample = databaseClient.sql("SELECT id, email FROM users LIMIT 1")
+                .fetch()
+                .one()
+                .block(TIMEOUT);
+        if (sample == null) {
+            log.warn("Skipping users partition check: no users to sample");
+            return;
+        }
+        Long id = ((Number) sample.get("id")).longValue();
+        String email = (String) sample.get("email");
+
+        List<PlanResult> results = transactionalOperator.execute(status -> {
+                    status.setRollbackOnly();
+                    return Flux.concat(
+                            explain("findByEmail", UserRepository.FIND_BY_EMAIL, Map.of("email", email)),
+                            explain("findCredentialsByEmail", UserRepository.FIND_CREDENTIALS_BY_EMAIL,
+                                    Map.of("email", email)),
+                            explain("insertIfAbsent", UserRegistrationRepositoryImpl.INSERT_IF_ABSENT,
+                                    insertParams(email)),
+                            explain("replacePassword", UserRepository.REPLACE_PASSWORD, Map.of("id", id,
+                                    "email", email, "oldPassword", "-", "newPassword", "-")),
+                            explain("markVerified", UserRepository.MARK_VERIFIED,
+                                    Map.of("id", id, "email", email, "code", "-")),
+                            explain("updateVerificationCode", UserRepository.UPDATE_VERIFICATION_CODE,
+                                    Map.of("email", email, "code", "-")),
+                            explainRotate(id, email));
+                })
+                .collectList()
+                .block(TIMEOUT);
+
+        boolean failed = false;
+        for (PlanResult result : results) {
+            if (result.partitions().size() > 1) {
+                log.error("{} scanned {} users partitions: {}", result.statement(), result.partitions().size(),
+                        result.partitions());
+                failed = true;
+            } else {
+                log.info("{} scanned users partitions {}", result.statement(), result.partitions());
+            }
+        }
+        if (failed) {
+            throw new IllegalStateException("Hot-path user statements are not pruned to a single partition");
+        }
+    }
+
+    // The sample's own email, so the insert takes the conflict path and writes nothing
+    private static Map<String, Object> insertParams(String email) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("email", email);
+        params.put("name", "-");
+        params.put("password", "-");
+        params.put("avatarUrl", "-");
+        params.put("roles", new String[] {"USER"});
+        params.put("ipAddress", "-");
+        params.put("city", "-");
+        params.put("country", "-");
+        params.put("deviceData", "-");
+        params.put("profileType", "LISTENER");
+        params.put("verified", false);
+        params.put("verificationCode", "-");
+        params.put("verificationCodeExpiresAt", now);
+        params.put("createdAt", now);
+        params.put("updatedAt", now);
+        return params;
+    }
+
+    private Mono<PlanResult> explainRotate(Long id, String email) {
+        byte[] tokenHash = TokenDigests.sha256(UUID.randomUUID().toString());
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("tokenHash", tokenHash);
+        params.put("newTokenHash", TokenDigests.sha256(UUID.randomUUID().toString()));
+        params.put("expiresAt", LocalDateTime.now().plusDays(7));
+        return databaseClient.sql("INSERT INTO refresh_tokens (token_hash, user_id, user_email, expires_at) "
+                        + "VALUES (:tokenHash, :userId, :email, :expiresAt)")
+                .bind("tokenHash", tokenHash)
+                .bind("userId", id)
+                .bind("email", email)
+                .bind("expiresAt", LocalDateTime.now().plusDays(1))
+                .then()
+                .then(explain("rotate", RefreshTokenRepository.ROTATE, params));
+    }
+
+    private Mono<PlanResult> explain(String statement, String sql, Map<String, Object> params) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("EXPLAIN (ANALYZE, FORMAT JSON) " + sql);
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(row -> row.get(0, String.class))
+                .one()
+                .map(json -> {
+                    Set<String> partitions = new TreeSet<>();
+                    try {
+                        collectExecutedPartitions(objectMapper.readTree(json).path(0).path("Plan"), partitions);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Unreadable plan for " + statement, e);
+                    }
+                    return new PlanResult(statement, partitions);
+                });
+    }
+
+    // Pruned subplans are either absent or report zero loops
+    private static void collectExecutedPartitions(JsonNode plan, Set<String> partitions) {
+        String relation = plan.path("Relation Name").asText("");
+        if (USERS_PARTITION.matcher(relation).matches() && plan.path("Actual Loops").asLong() > 0) {
+            partitions.add(relation);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectExecutedPartitions(child, partitions);
+        }
+    }
+
+    private record PlanResult(String statement, Set<String> partitions) {
+    }
+}
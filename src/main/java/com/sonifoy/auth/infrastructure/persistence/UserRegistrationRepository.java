@@ -0,0 +1,13 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import com.sonifoy.auth.domain.model.User;
+import reactor.core.publisher.Mono;
+
+public interface UserRegistrationRepository {
+
+    /**
+     * Inserts the user unless the email is already taken, in one statement.
+     * Completes empty when it is.
+     */
+    Mono<User> insertIfAbsent(User user);
+}
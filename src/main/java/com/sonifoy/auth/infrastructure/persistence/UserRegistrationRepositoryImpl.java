@@ -0,0 +1,54 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import com.sonifoy.auth.domain.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+class UserRegistrationRepositoryImpl implements UserRegistrationRepository {
+
+    static final String INSERT_IF_ABSENT = """
+            INSERT INTO users (email, name, password, avatar_url, roles, ip_address, city, country, device_data,
+                               profile_type, verified, verification_code, verification_code_expires_at,
+                               created_at, updated_at)
+            VALUES (:email, :name, :password, :avatarUrl, :roles, :ipAddress, :city, :country, :deviceData,
+                    :profileType, :verified, :verificationCode, :verificationCodeExpiresAt,
+                    :createdAt, :updatedAt)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING *
+            """;
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Mono<User> insertIfAbsent(User user) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(INSERT_IF_ABSENT)
+                .bind("email", user.getEmail())
+                .bind("password", user.getPassword())
+                .bind("verified", user.isVerified());
+        spec = bind(spec, "name", user.getName(), String.class);
+        spec = bind(spec, "avatarUrl", user.getAvatarUrl(), String.class);
+        spec = bind(spec, "roles", user.getRoles() == null ? null : user.getRoles().toArray(String[]::new),
+                String[].class);
+        spec = bind(spec, "ipAddress", user.getIpAddress(), String.class);
+        spec = bind(spec, "city", user.getCity(), String.class);
+        spec = bind(spec, "country", user.getCountry(), String.class);
+        spec = bind(spec, "deviceData", user.getDeviceData(), String.class);
+        spec = bind(spec, "profileType", user.getProfileType(), String.class);
+        spec = bind(spec, "verificationCode", user.getVerificationCode(), String.class);
+        spec = bind(spec, "verificationCodeExpiresAt", user.getVerificationCodeExpiresAt(), LocalDateTime.class);
+        spec = bind(spec, "createdAt", user.getCreatedAt(), LocalDateTime.class);
+        spec = bind(spec, "updatedAt", user.getUpdatedAt(), LocalDateTime.class);
+        return spec.map((row, metadata) -> template.getConverter().read(User.class, row, metadata))
+                .one();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+            Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+}
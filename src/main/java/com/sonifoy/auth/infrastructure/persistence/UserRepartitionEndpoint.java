@@ -0,0 +1,26 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/repartition}: progress and copy rate of the online users
+ * repartitioning.
+ */
+@Component
+@Endpoint(id = "repartition")
+@RequiredArgsConstructor
+public class UserRepartitionEndpoint {
+
+    private final UserRepartitioningJob userRepartitioningJob;
+
+    @ReadOperation
+    public Mono<Map<String, Object>> progress() {
+        return userRepartitioningJob.progress();
+    }
+}
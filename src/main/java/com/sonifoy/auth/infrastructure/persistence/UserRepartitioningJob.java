@@ -0,0 +1,317 @@
+package com.sonifoy.auth.infrastructure.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Moves {@code users} online to {@code auth.users.partitions} hash partitions.
+ * <ol>
+ * <li>Prepare: create {@code users_next} with the new partition set and a
+ * trigger that mirrors every write on {@code users} into it.</li>
+ * <li>Copy: keyset batches by id, throttled to {@code max-rows-per-second}.
+ * Source rows are read {@code FOR SHARE}, so each batch copies the latest
+ * committed version and concurrent writers wait for it rather than racing the
+ * trigger.</li>
+ * <li>Swap: under an exclusive lock, rename the tables and partitions, hand
+ * the id sequence over and drop the old set, all in one transaction.</li>
+ * </ol>
+ * Progress lives in {@code users_repartition}; the replica holding its lease
+ * does the copying, and another takes over from {@code last_id} if it stops.
+ */
+@Component
+@Slf4j
+public class UserRepartitioningJob {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(hashtext('users_repartition'))";
+
+    private static final String CLAIM_LEASE = """
+            UPDATE users_repartition
+            SET owner = :owner, updated_at = LOCALTIMESTAMP
+            WHERE owner IS NULL OR owner = :owner
+               OR updated_at < LOCALTIMESTAMP - make_interval(secs => :leaseSeconds)
+            RETURNING last_id
+            """;
+
+    private static final String COPY_BATCH = """
+            WITH batch AS (
+                SELECT * FROM users WHERE id > :lastId ORDER BY id LIMIT :batchSize FOR SHARE
+            ), copied AS (
+                INSERT INTO users_next SELECT * FROM batch ON CONFLICT DO NOTHING
+            )
+            UPDATE users_repartition
+            SET last_id = COALESCE((SELECT max(id) FROM batch), last_id),
+                rows_copied = rows_copied + (SELECT count(*) FROM batch),
+                updated_at = LOCALTIMESTAMP
+            RETURNING (SELECT count(*) FROM batch) AS batch_rows
+            """;
+
+    private static final String PROGRESS = """
+            SELECT (SELECT count(*) FROM pg_inherits WHERE inhparent = 'users'::regclass) AS current_partitions,
+                   (SELECT GREATEST(sum(c.reltuples), 0)::BIGINT
+                    FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                    WHERE i.inhparent = 'users'::regclass) AS estimated_rows,
+                   r.target_partitions, r.last_id, r.rows_copied, r.owner, r.started_at, r.updated_at
+            FROM (SELECT 1) AS one LEFT JOIN users_repartition r ON true
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final boolean enabled;
+    private final int targetPartitions;
+    private final int batchSize;
+    private final int maxRowsPerSecond;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile String status = "IDLE";
+    private volatile String lastError;
+    private volatile double rowsPerSecond;
+
+    public UserRepartitioningJob(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+            @Value("${auth.users.repartition.enabled:true}") boolean enabled,
+            @Value("${auth.users.partitions:4}") int targetPartitions,
+            @Value("${auth.users.repartition.batch-size:1000}") int batchSize,
+            @Value("${auth.users.repartition.max-rows-per-second:5000}") int maxRowsPerSecond,
+            @Value("${auth.users.repartition.lease:1m}") Duration lease) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.enabled = enabled;
+        this.targetPartitions = targetPartitions;
+        this.batchSize = batchSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.users.repartition.check-interval:PT1M}")
+    public void checkPartitions() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            Long current = databaseClient.sql("SELECT count(*) AS partitions FROM pg_inherits "
+                            + "WHERE inhparent = 'users'::regclass")
+                    .map(row -> row.get("partitions", Long.class))
+                    .one()
+                    .block(TIMEOUT);
+            Integer pending = databaseClient.sql("SELECT target_partitions FROM users_repartition")
+                    .map(row -> row.get("target_partitions", Integer.class))
+                    .one()
+                    .block(TIMEOUT);
+            if (pending == null && current != null && current == targetPartitions) {
+                return;
+            }
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+            int target = pending != null ? pending : targetPartitions;
+            if (pending == null) {
+                log.info("Repartitioning users from {} to {} partitions", current, target);
+            }
+
+            // Runs off the scheduler thread; copying can take a long time on a large table
+            (pending == null ? prepare(target) : Mono.<Void>empty())
+                    .then(Mono.defer(this::copy))
+                    .flatMap(finished -> finished ? swap(target) : Mono.<Void>empty())
+                    .doFinally(signal -> running.set(false))
+                    .subscribe(
+                            v -> {
+                            },
+                            e -> {
+                                status = "FAILED";
+                                lastError = e.getMessage();
+                                log.error("Users repartitioning failed; it resumes on the next check", e);
+                            });
+        } catch (Exception e) {
+            running.set(false);
+            log.warn("Users partition check failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Progress as seen from the shared state row, plus this node's copy rate.
+     */
+    public Mono<Map<String, Object>> progress() {
+        return databaseClient.sql(PROGRESS)
+                .fetch()
+                .one()
+                .map(row -> {
+                    Map<String, Object> progress = new LinkedHashMap<>();
+                    progress.put("status", row.get("target_partitions") == null ? "IDLE" : status);
+                    progress.put("configuredPartitions", targetPartitions);
+                    progress.put("currentPartitions", row.get("current_partitions"));
+                    progress.put("targetPartitions", row.get("target_partitions"));
+                    progress.put("estimatedRows", row.get("estimated_rows"));
+                    progress.put("rowsCopied", row.get("rows_copied"));
+                    progress.put("lastId", row.get("last_id"));
+                    progress.put("owner", row.get("owner"));
+                    progress.put("ownedByThisNode", owner.equals(row.get("owner")));
+                    progress.put("rowsPerSecond", Math.round(rowsPerSecond));
+                    progress.put("startedAt", row.get("started_at"));
+                    progress.put("updatedAt", row.get("updated_at"));
+                    progress.put("lastError", lastError);
+                    return progress;
+                });
+    }
+
+    private Mono<Void> prepare(int target) {
+        status = "PREPARING";
+        return databaseClient.sql(LOCK).then()
+                .then(databaseClient.sql("SELECT count(*) AS pending FROM users_repartition")
+                        .map(row -> row.get("pending", Long.class))
+                        .one())
+                .flatMap(alreadyPending -> {
+                    if (alreadyPending > 0) {
+                        // Another replica prepared it first
+                        return Mono.<Void>empty();
+                    }
+                    return execute("DROP TABLE IF EXISTS users_next")
+                            .then(execute("CREATE TABLE users_next (LIKE users INCLUDING ALL) PARTITION BY HASH (email)"))
+                            .then(Flux.range(0, target)
+                                    .concatMap(r -> execute("CREATE TABLE users_next_p" + r
+                                            + " PARTITION OF users_next FOR VALUES WITH (MODULUS " + target
+                                            + ", REMAINDER " + r + ")"))
+                                    .then())
+                            .then(createSyncTrigger())
+                            .then(databaseClient.sql("INSERT INTO users_repartition (target_partitions, owner) "
+                                            + "VALUES (:target, :owner)")
+                                    .bind("target", target)
+                                    .bind("owner", owner)
+                                    .then());
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> createSyncTrigger() {
+        return databaseClient.sql("SELECT column_name FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = 'users' ORDER BY ordinal_position")
+                .map(row -> row.get("column_name", String.class))
+                .all()
+                .collectList()
+                .flatMap(columns -> execute(syncFunction(columns)))
+                .then(execute("CREATE TRIGGER users_repartition_sync AFTER INSERT OR UPDATE OR DELETE ON users "
+                        + "FOR EACH ROW EXECUTE FUNCTION users_repartition_sync()"));
+    }
+
+    private static String syncFunction(List<String> columns) {
+        String names = columns.stream().map(c -> '"' + c + '"').collect(Collectors.joining(", "));
+        String values = columns.stream().map(c -> "NEW.\"" + c + '"').collect(Collectors.joining(", "));
+        String updates = columns.stream().map(c -> '"' + c + "\" = EXCLUDED.\"" + c + '"')
+                .collect(Collectors.joining(", "));
+        return """
+                CREATE OR REPLACE FUNCTION users_repartition_sync() RETURNS trigger AS $$
+                BEGIN
+                    IF TG_OP = 'DELETE' THEN
+                        DELETE FROM users_next WHERE id = OLD.id AND email = OLD.email;
+                        RETURN OLD;
+                    END IF;
+                    IF TG_OP = 'UPDATE' THEN
+                        IF OLD.id <> NEW.id OR OLD.email <> NEW.email THEN
+                            DELETE FROM users_next WHERE id = OLD.id AND email = OLD.email;
+                        END IF;
+                    END IF;
+                    INSERT INTO users_next (%s) VALUES (%s)
+                    ON CONFLICT (id, email) DO UPDATE SET %s;
+                    RETURN NEW;
+                END
+                $$ LANGUAGE plpgsql
+                """.formatted(names, values, updates);
+    }
+
+    /**
+     * Copies batches until the source is exhausted. Emits true when this node
+     * finished the copy, false when another replica holds the lease.
+     */
+    private Mono<Boolean> copy() {
+        status = "COPYING";
+        long startedAt = System.nanoTime();
+        long[] copied = new long[1];
+        return copyBatch()
+                .expand(rows -> rows > 0
+                        ? Mono.delay(Duration.ofMillis(rows * 1000L / Math.max(1, maxRowsPerSecond)))
+                                .then(copyBatch())
+                        : Mono.empty())
+                .doOnNext(rows -> {
+                    if (rows > 0) {
+                        copied[0] += rows;
+                        rowsPerSecond = copied[0] / Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+                    }
+                })
+                .last()
+                .map(rows -> rows == 0);
+    }
+
+    /**
+     * Copies one batch under the lease. Returns the rows copied, 0 once the
+     * source is exhausted, or -1 when the lease belongs to another replica.
+     */
+    private Mono<Long> copyBatch() {
+        return databaseClient.sql(CLAIM_LEASE)
+                .bind("owner", owner)
+                .bind("leaseSeconds", (double) lease.toSeconds())
+                .map(row -> row.get("last_id", Long.class))
+                .one()
+                .flatMap(lastId -> databaseClient.sql(COPY_BATCH)
+                        .bind("lastId", lastId)
+                        .bind("batchSize", batchSize)
+                        .map(row -> row.get("batch_rows", Long.class))
+                        .one())
+                .defaultIfEmpty(-1L)
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> swap(int target) {
+        status = "SWAPPING";
+        return databaseClient.sql(LOCK).then()
+                .then(execute("LOCK TABLE users IN ACCESS EXCLUSIVE MODE"))
+                .then(databaseClient.sql("SELECT pg_get_serial_sequence('users', 'id') AS sequence_name")
+                        .map(row -> row.get("sequence_name", String.class))
+                        .one())
+                .flatMap(sequence -> execute("DROP TRIGGER users_repartition_sync ON users")
+                        .then(execute("DROP FUNCTION users_repartition_sync()"))
+                        .then(renamePartitions("users", "users_old"))
+                        .then(execute("ALTER TABLE users RENAME TO users_old"))
+                        .then(renamePartitions("users_next", "users"))
+                        .then(execute("ALTER TABLE users_next RENAME TO users"))
+                        // The old table owns the sequence and would drop it with itself
+                        .then(execute("ALTER SEQUENCE " + sequence + " OWNED BY users.id"))
+                        .then(execute("DELETE FROM users_repartition"))
+                        .then(execute("DROP TABLE users_old")))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(v -> {
+                    status = "IDLE";
+                    lastError = null;
+                    log.info("Users now has {} partitions", target);
+                });
+    }
+
+    private Mono<Void> renamePartitions(String parent, String newParent) {
+        return databaseClient.sql("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = CAST(:parent AS regclass)")
+                .bind("parent", parent)
+                .map(row -> row.get("relname", String.class))
+                .all()
+                .concatMap(partition -> execute("ALTER TABLE \"" + partition + "\" RENAME TO \""
+                        + newParent + partition.substring(parent.length()) + '"'))
+                .then();
+    }
+
+    private Mono<Void> execute(String sql) {
+        return databaseClient.sql(sql).then();
+    }
+}
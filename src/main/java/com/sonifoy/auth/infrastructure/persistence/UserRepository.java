@@ -1,13 +1,54 @@
 package com.sonifoy.auth.infrastructure.persistence;
 
 import com.sonifoy.auth.domain.model.User;
+import com.sonifoy.auth.domain.model.UserCredentials;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
+/**
+ * {@code users} is hash-partitioned by email, so every hot-path statement here
+ * filters on {@code email}; lookups or updates by {@code id} alone would probe
+ * every partition. {@link UserPartitionPlanCheck} verifies this with EXPLAIN.
+ */
 @Repository
-public interface UserRepository extends R2dbcRepository<User, Long> {
+public interface UserRepository extends R2dbcRepository<User, Long>, UserRegistrationRepository {
+
+    String FIND_BY_EMAIL = "SELECT * FROM users WHERE email = :email";
+
+    String FIND_CREDENTIALS_BY_EMAIL = "SELECT id, email, password AS password_hash, verified, roles, name, "
+            + "profile_type, avatar_url, city, country, last_login_at, created_at, updated_at "
+            + "FROM users WHERE email = :email";
+
+    String REPLACE_PASSWORD = "UPDATE users SET password = :newPassword, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id = :id AND email = :email AND password = :oldPassword";
+
+    String MARK_VERIFIED = "UPDATE users SET verified = true, verification_code = NULL, "
+            + "updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id = :id AND email = :email AND verification_code = :code";
+
+    String UPDATE_VERIFICATION_CODE = "UPDATE users SET verification_code = :code, "
+            + "updated_at = CURRENT_TIMESTAMP WHERE email = :email";
+
+    @Query(FIND_BY_EMAIL)
     Mono<User> findByEmail(String email);
 
+    @Query(FIND_CREDENTIALS_BY_EMAIL)
+    Mono<UserCredentials> findCredentialsByEmail(String email);
+
     Mono<Boolean> existsByEmail(String email);
+
+    @Modifying
+    @Query(REPLACE_PASSWORD)
+    Mono<Integer> replacePassword(Long id, String email, String oldPassword, String newPassword);
+
+    @Modifying
+    @Query(MARK_VERIFIED)
+    Mono<Integer> markVerified(Long id, String email, String code);
+
+    @Modifying
+    @Query(UPDATE_VERIFICATION_CODE)
+    Mono<Integer> updateVerificationCode(String email, String code);
 }
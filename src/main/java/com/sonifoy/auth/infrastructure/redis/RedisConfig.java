@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -20,4 +21,13 @@ public class RedisConfig {
         RedisSerializationContext<String, String> context = builder.value(valueSerializer).build();
         return new ReactiveRedisTemplate<>(factory, context);
     }
+
+    @Bean
+    public ReactiveRedisTemplate<byte[], byte[]> binaryRedisTemplate(ReactiveRedisConnectionFactory factory) {
+        RedisSerializationContext<byte[], byte[]> context = RedisSerializationContext
+                .<byte[], byte[]>newSerializationContext(RedisSerializer.byteArray())
+                .value(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
 }
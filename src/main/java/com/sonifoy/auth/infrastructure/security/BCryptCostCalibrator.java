@@ -0,0 +1,111 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the BCrypt work factor for this node. Unless a fixed cost is
+ * configured, each cost from {@code min-cost} upwards is timed at startup and
+ * the highest one whose hash still fits within {@code target-latency} wins.
+ */
+@Component
+@Slf4j
+public class BCryptCostCalibrator {
+
+    private static final String CALIBRATION_PASSWORD = "calibration-Passw0rd!";
+    private static final int SAMPLES = 3;
+    // The form BCryptPasswordEncoder accepts: version, two-digit cost, 22-character salt and 31-character hash
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}\\z");
+
+    private final int fixedCost;
+    private final int minCost;
+    private final int maxCost;
+    private final Duration targetLatency;
+
+    private volatile int cost;
+
+    public BCryptCostCalibrator(
+            @Value("${auth.password-hashing.cost:0}") int fixedCost,
+            @Value("${auth.password-hashing.min-cost:10}") int minCost,
+            @Value("${auth.password-hashing.max-cost:16}") int maxCost,
+            @Value("${auth.password-hashing.target-latency:80ms}") Duration targetLatency) {
+        this.fixedCost = fixedCost;
+        this.minCost = minCost;
+        this.maxCost = maxCost;
+        this.targetLatency = targetLatency;
+    }
+
+    public int getCost() {
+        if (cost == 0) {
+            synchronized (this) {
+                if (cost == 0) {
+                    cost = fixedCost > 0 ? fixedCost : calibrate();
+                }
+            }
+        }
+        return cost;
+    }
+
+    private int calibrate() {
+        String salt = BCrypt.gensalt(minCost);
+        // Warm the BCrypt code path so the first measurement is not interpreted
+        BCrypt.hashpw(CALIBRATION_PASSWORD, salt);
+
+        int selected = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long elapsedNanos = measure(candidate);
+            log.info("BCrypt cost {} takes {} ms per hash", candidate, elapsedNanos / 1_000_000);
+            if (elapsedNanos > targetLatency.toNanos()) {
+                break;
+            }
+            selected = candidate;
+        }
+        log.info("Calibrated BCrypt cost {} for a target latency of {} ms", selected, targetLatency.toMillis());
+        return selected;
+    }
+
+    private long measure(int candidate) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            String salt = BCrypt.gensalt(candidate);
+            long start = System.nanoTime();
+            BCrypt.hashpw(CALIBRATION_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * True for a complete 60-character BCrypt hash with a cost BCrypt accepts
+     * (4 to 31); truncated or otherwise damaged hashes can never match a password.
+     */
+    public static boolean isWellFormed(String encodedPassword) {
+        if (encodedPassword == null || !BCRYPT_HASH.matcher(encodedPassword).matches()) {
+            return false;
+        }
+        int cost = costOf(encodedPassword);
+        return cost >= 4 && cost <= 31;
+    }
+
+    /**
+     * Returns the cost encoded in a {@code $2a$NN$...} hash, or -1 if the value is
+     * not a BCrypt hash.
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,162 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Near-cache in front of another {@link SessionKeyStore}. Keys are held in a
+ * bounded local cache for a short TTL, so the per-request lookup in
+ * {@link PayloadEncryptionFilter} normally skips Redis. An entry never outlives
+ * the key in the delegate: it expires after the configured TTL or the time the
+ * key had left when it was read, whichever is shorter. Removals are broadcast
+ * on a Redis pub/sub channel so every node drops the key, not only the one
+ * that handled the logout.
+ * <p>
+ * Misses load through the cache as futures, so concurrent misses share one
+ * lookup, and an invalidation that arrives while a lookup is in flight drops
+ * it: the key it returns is handed to its callers but never cached. A removal
+ * invalidates again once the delegate has deleted the key, which covers
+ * lookups that started in between.
+ */
+@Slf4j
+public class CachingSessionKeyStore implements SessionKeyStore {
+
+    static final String INVALIDATION_CHANNEL = "session:key:invalidate";
+
+    private final SessionKeyStore delegate;
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final AsyncCache<String, ExpiringKey> cache;
+    private Disposable invalidationSubscription;
+
+    public CachingSessionKeyStore(SessionKeyStore delegate, ReactiveRedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry, long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new RemainingTtlExpiry(ttl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sessionKeys");
+    }
+
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        invalidationSubscription = redisTemplate.listenToChannel(INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(cache.synchronous()::invalidate)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            log.warn("Session key invalidation channel failed, resubscribing: {}",
+                                    signal.failure().getMessage());
+                            // Invalidations may have been missed while disconnected
+                            cache.synchronous().invalidateAll();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Void> saveKey(String sessionId, byte[] key) {
+        return delegate.saveKey(sessionId, key)
+                .doOnSuccess(v -> cache.put(sessionId, CompletableFuture.completedFuture(new ExpiringKey(key, null))));
+    }
+
+    @Override
+    public Mono<byte[]> getKey(String sessionId) {
+        // A lookup that finds nothing completes with null, which the cache does not keep.
+        // Cancelling one caller must not cancel the lookup other callers share
+        return Mono.fromFuture(cache.get(sessionId, (id, executor) -> delegate.getExpiringKey(id).toFuture()), true)
+                .map(ExpiringKey::key);
+    }
+
+    @Override
+    public Mono<Void> removeKey(String sessionId) {
+        cache.synchronous().invalidate(sessionId);
+        return delegate.removeKey(sessionId)
+                .then(Mono.fromRunnable(() -> cache.synchronous().invalidate(sessionId)))
+                .then(redisTemplate.convertAndSend(INVALIDATION_CHANNEL, sessionId))
+                .then();
+    }
+
+    @Override
+    public Mono<Map<String, byte[]>> getKeys(Collection<String> sessionIds) {
+        return Mono.fromFuture(cache.getAll(sessionIds, (ids, executor) -> delegate.getExpiringKeys(Set.copyOf(ids))
+                        .toFuture()), true)
+                .map(found -> {
+                    Map<String, byte[]> keys = new HashMap<>(found.size() * 2);
+                    found.forEach((sessionId, entry) -> keys.put(sessionId, entry.key()));
+                    return keys;
+                });
+    }
+
+    @Override
+    public Mono<Void> saveKeys(Map<String, byte[]> keys) {
+        return delegate.saveKeys(keys)
+                .doOnSuccess(v -> keys.forEach((sessionId, key) ->
+                        cache.put(sessionId, CompletableFuture.completedFuture(new ExpiringKey(key, null)))));
+    }
+
+    @Override
+    public Mono<Void> removeKeys(Collection<String> sessionIds) {
+        cache.synchronous().invalidateAll(sessionIds);
+        return delegate.removeKeys(sessionIds)
+                .then(Mono.fromRunnable(() -> cache.synchronous().invalidateAll(sessionIds)))
+                .thenMany(Flux.fromIterable(sessionIds)
+                        .flatMap(sessionId -> redisTemplate.convertAndSend(INVALIDATION_CHANNEL, sessionId)))
+                .then();
+    }
+
+    /**
+     * Expires an entry after the configured TTL or the key's remaining time in
+     * the delegate, whichever is shorter; reads do not extend it.
+     */
+    private static final class RemainingTtlExpiry implements Expiry<String, ExpiringKey> {
+        private final long ttlNanos;
+
+        RemainingTtlExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String sessionId, ExpiringKey entry, long currentTime) {
+            return entry.remaining() == null ? ttlNanos : Math.min(ttlNanos, entry.remaining().toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String sessionId, ExpiringKey entry, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(sessionId, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String sessionId, ExpiringKey entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates bearer tokens. Each token is parsed and its signature checked
+ * once; the SHA-256 digest of a verified token is then cached until the
+ * token's own {@code exp}, so repeat calls from the same client skip the
+ * parse and the ES256 signature verification.
+ */
+@Component
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final JwtService jwtService;
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtAuthenticationManager(JwtService jwtService, MeterRegistry meterRegistry,
+            @Value("${auth.jwt.verified-cache.maximum-size:100000}") long maximumSize) {
+        this.jwtService = jwtService;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = String.valueOf(authentication.getCredentials());
+        return Mono.fromCallable(() -> verify(token))
+                .onErrorMap(e -> e instanceof JwtException || e instanceof IllegalArgumentException,
+                        e -> new BadCredentialsException("Invalid token", e))
+                .map(verified -> new UsernamePasswordAuthenticationToken(verified.subject(), token, List.of()));
+    }
+
+    private VerifiedToken verify(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(TokenDigests.sha256(token));
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+        Claims claims = jwtService.extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    private record VerifiedToken(String subject, long expiresAtMillis) {
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory view of the JWT signing keys shared by all replicas. A newly
+ * generated key is published in the JWKS for {@code publishDelay} before it
+ * starts signing, so downstream caches already know its {@code kid}; older keys
+ * stay available for verification until {@link JwtKeyRotationService} prunes
+ * them.
+ */
+@Component
+public class JwtKeyRing {
+
+    private volatile State state = new State(List.of(), null, Map.of());
+
+    public void update(List<JwtSigningKey> keys, Duration publishDelay, Instant now) {
+        List<JwtSigningKey> sorted = keys.stream()
+                .sorted(Comparator.comparing(JwtSigningKey::createdAt))
+                .toList();
+
+        JwtSigningKey active = null;
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        for (JwtSigningKey key : sorted) {
+            publicKeys.put(key.kid(), key.publicKey());
+            if (!key.createdAt().plus(publishDelay).isAfter(now)) {
+                active = key;
+            }
+        }
+        if (active == null && !sorted.isEmpty()) {
+            // Fresh key ring: nothing has been published long enough yet
+            active = sorted.get(sorted.size() - 1);
+        }
+        state = new State(sorted, active, Map.copyOf(publicKeys));
+    }
+
+    public JwtSigningKey signingKey() {
+        JwtSigningKey active = state.active();
+        if (active == null) {
+            throw new IllegalStateException("No JWT signing key loaded");
+        }
+        return active;
+    }
+
+    public boolean hasSigningKey() {
+        return state.active() != null;
+    }
+
+    public PublicKey verificationKey(String kid) {
+        return state.publicKeys().get(kid);
+    }
+
+    /**
+     * All keys, oldest first.
+     */
+    public List<JwtSigningKey> keys() {
+        return state.keys();
+    }
+
+    private record State(List<JwtSigningKey> keys, JwtSigningKey active, Map<String, PublicKey> publicKeys) {
+    }
+}
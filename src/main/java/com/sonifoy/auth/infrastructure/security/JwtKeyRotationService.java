@@ -0,0 +1,201 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import com.sonifoy.auth.infrastructure.security.crypto.CryptoService;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link JwtKeyRing} in sync with the key set shared through Redis
+ * and rotates it on schedule. Whichever replica first sees the newest key
+ * older than {@code rotation-interval} takes a short Redis lock, re-reads the
+ * key set under it, and only if that still calls for a rotation generates the
+ * next ES256 key pair and prunes keys whose tokens can no longer be valid. The
+ * lock is released only by the replica that holds it.
+ * Private keys are stored encrypted with a key derived from {@code jwt.secret}.
+ */
+@Service
+@Slf4j
+public class JwtKeyRotationService {
+
+    private static final String KEYS_HASH = "jwt:signing-keys";
+    private static final String LOCK_KEY = "jwt:signing-keys:lock";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(30);
+    // Deletes the lock only if it still holds our instance id, so a lock that expired and was
+    // taken by another replica is left alone
+    private static final RedisScript<Long> RELEASE_LOCK = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final CryptoService cryptoService;
+    private final JwtKeyRing keyRing;
+    private final Duration rotationInterval;
+    private final Duration publishDelay;
+    private final Duration tokenLifetime;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final byte[] wrappingKey;
+    private final boolean trainingRun;
+
+    public JwtKeyRotationService(
+            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            CryptoService cryptoService,
+            JwtKeyRing keyRing,
+            @Value("${jwt.secret:}") String secret,
+            @Value("${jwt.expiration:86400000}") long expirationMillis,
+            @Value("${auth.jwt.rotation-interval:7d}") Duration rotationInterval,
+            @Value("${auth.jwt.publish-delay:10m}") Duration publishDelay,
+            @Value("${auth.startup.training-run:false}") boolean trainingRun) throws Exception {
+        this.redisTemplate = redisTemplate;
+        this.cryptoService = cryptoService;
+        this.keyRing = keyRing;
+        this.rotationInterval = rotationInterval;
+        this.publishDelay = publishDelay;
+        this.tokenLifetime = Duration.ofMillis(expirationMillis);
+        // A training run never loads or stores keys, and is built without deployment secrets
+        this.wrappingKey = trainingRun ? null
+                : cryptoService.deriveKey("jwt-signing-keys:" + JwtService.requireSecret(secret));
+        this.trainingRun = trainingRun;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (trainingRun) {
+            log.info("Training run: JWT signing keys are not loaded");
+            return;
+        }
+        // Another replica may hold the rotation lock on a fresh cluster; wait for its key
+        Mono.defer(this::refresh)
+                .then(Mono.fromCallable(keyRing::hasSigningKey))
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(20, attempts -> attempts.delayElements(Duration.ofMillis(500)))
+                .block(Duration.ofSeconds(30));
+        log.info("Loaded {} JWT signing keys, active kid {}", keyRing.keys().size(), keyRing.signingKey().kid());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.jwt.key-refresh-interval:PT1M}")
+    public void scheduledRefresh() {
+        refresh()
+                .doOnError(e -> log.warn("JWT key ring refresh failed: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .block(LOCK_TTL);
+    }
+
+    public Mono<Void> refresh() {
+        return loadKeys()
+                .flatMap(keys -> needsRotation(keys) ? rotate().then(loadKeys()) : Mono.just(keys))
+                .doOnNext(keys -> keyRing.update(keys, publishDelay, Instant.now()))
+                .then();
+    }
+
+    private boolean needsRotation(List<JwtSigningKey> keys) {
+        Instant newest = keys.stream().map(JwtSigningKey::createdAt).max(Instant::compareTo).orElse(Instant.EPOCH);
+        return !newest.plus(rotationInterval).isAfter(Instant.now());
+    }
+
+    private Mono<Void> rotate() {
+        return redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, instanceId, LOCK_TTL)
+                .filter(Boolean::booleanValue)
+                .flatMap(acquired -> rotateLocked()
+                        .then(releaseLock())
+                        .onErrorResume(e -> releaseLock().then(Mono.error(e))));
+    }
+
+    private Mono<Void> rotateLocked() {
+        // The keys that triggered this may predate a rotation another replica finished just before
+        // it released the lock
+        return loadKeys().flatMap(keys -> {
+            if (!needsRotation(keys)) {
+                return Mono.empty();
+            }
+            JwtSigningKey next = generateKey();
+            List<String> expired = expiredKeyIds(keys, Instant.now());
+            log.info("Rotating JWT signing key: new kid {}, pruning {}", next.kid(), expired);
+            Mono<Long> prune = expired.isEmpty()
+                    ? Mono.just(0L)
+                    : redisTemplate.opsForHash().remove(KEYS_HASH, expired.toArray());
+            return redisTemplate.opsForHash().put(KEYS_HASH, next.kid(), serialize(next))
+                    .then(prune)
+                    .then();
+        });
+    }
+
+    private Mono<Void> releaseLock() {
+        return redisTemplate.execute(RELEASE_LOCK, List.of(LOCK_KEY), List.of(instanceId)).then();
+    }
+
+    /**
+     * A key retires once its successor becomes active; after a further token
+     * lifetime nothing it signed can still be valid.
+     */
+    private List<String> expiredKeyIds(List<JwtSigningKey> keys, Instant now) {
+        List<JwtSigningKey> sorted = keys.stream()
+                .sorted((a, b) -> a.createdAt().compareTo(b.createdAt()))
+                .toList();
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < sorted.size() - 1; i++) {
+            Instant retiredAt = sorted.get(i + 1).createdAt().plus(publishDelay);
+            if (retiredAt.plus(tokenLifetime).isBefore(now)) {
+                expired.add(sorted.get(i).kid());
+            }
+        }
+        return expired;
+    }
+
+    private Mono<List<JwtSigningKey>> loadKeys() {
+        return redisTemplate.<String, String>opsForHash().entries(KEYS_HASH)
+                .flatMap(entry -> Mono.justOrEmpty(deserialize(entry)))
+                .collectList();
+    }
+
+    private JwtSigningKey generateKey() {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        return new JwtSigningKey(UUID.randomUUID().toString(), keyPair.getPublic(), keyPair.getPrivate(),
+                Instant.now());
+    }
+
+    private String serialize(JwtSigningKey key) {
+        byte[] privateKey = key.privateKey().getEncoded();
+        return key.createdAt().toEpochMilli()
+                + "|" + Base64.getEncoder().encodeToString(key.publicKey().getEncoded())
+                + "|" + new String(cryptoService.encrypt(privateKey, 0, privateKey.length, wrappingKey),
+                        StandardCharsets.ISO_8859_1);
+    }
+
+    private JwtSigningKey deserialize(Map.Entry<String, String> entry) {
+        try {
+            String[] parts = entry.getValue().split("\\|", 3);
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            byte[] privateKey = cryptoService.decrypt(parts[2].getBytes(StandardCharsets.ISO_8859_1), 0,
+                    parts[2].length(), wrappingKey);
+            return new JwtSigningKey(entry.getKey(),
+                    keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(parts[1]))),
+                    keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)),
+                    Instant.ofEpochMilli(Long.parseLong(parts[0])));
+        } catch (Exception e) {
+            log.error("Skipping unreadable JWT signing key {}", entry.getKey(), e);
+            return null;
+        }
+    }
+}
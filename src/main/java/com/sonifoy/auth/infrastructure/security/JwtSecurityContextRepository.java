@@ -0,0 +1,43 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stateless security context built from the {@code Authorization: Bearer}
+ * header on every request. An invalid token yields an empty context, so
+ * protected routes answer 401.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtSecurityContextRepository implements ServerSecurityContextRepository {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtAuthenticationManager authenticationManager;
+
+    @Override
+    public Mono<Void> save(ServerWebExchange exchange, SecurityContext context) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<SecurityContext> load(ServerWebExchange exchange) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return Mono.empty();
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(token, token))
+                .<SecurityContext>map(SecurityContextImpl::new)
+                .onErrorResume(AuthenticationException.class, e -> Mono.empty());
+    }
+}
@@ -1,39 +1,156 @@
 package com.sonifoy.auth.infrastructure.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Issues ES256 access tokens signed with the active key of the
+ * {@link JwtKeyRing}, tagged with its {@code kid} so downstream services can
+ * verify them locally against {@code /.well-known/jwks.json}. Signing and
+ * verification are timed as {@code auth.jwt} by {@code operation} and
+ * {@code outcome}, so rejected tokens are counted apart from valid ones.
+ * <p>
+ * HS256 tokens without a {@code kid}, issued before asymmetric signing, are
+ * rejected unless {@code auth.jwt.legacy-hs256-accept-until} is set, and then
+ * only until that instant, which may be at most one token lifetime after
+ * startup so the shared-secret path closes once the last such token expires.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret:default_military_grade_secret_key_must_be_minimum_256_bits_long}")
+    private final JwtKeyRing keyRing;
+    private final Timer signTimer;
+    private final Timer signErrorTimer;
+    private final Timer verifyTimer;
+    private final Timer verifyErrorTimer;
+
+    // Shipped as the default before jwt.secret had to be configured; never acceptable
+    private static final String FORMER_DEFAULT_SECRET =
+            "default_military_grade_secret_key_must_be_minimum_256_bits_long";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    @Value("${jwt.secret:}")
     private String secret;
 
     @Value("${jwt.expiration:86400000}") // 24 hours
     private long expirationTime;
 
-    private Key key;
+    @Value("${auth.jwt.legacy-hs256-accept-until:}")
+    private String legacyAcceptUntil;
+
+    // Verifies HS256 tokens issued before asymmetric signing; they carry no kid. Null when not accepted
+    private Key legacyKey;
+    private Instant legacyCutoff;
+    // Immutable and thread-safe; built once instead of per parse
+    private JwtParser parser;
+
+    public JwtService(JwtKeyRing keyRing, MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
+        this.signTimer = timer(meterRegistry, "sign", "success");
+        this.signErrorTimer = timer(meterRegistry, "sign", "error");
+        this.verifyTimer = timer(meterRegistry, "verify", "success");
+        this.verifyErrorTimer = timer(meterRegistry, "verify", "error");
+    }
+
+    /**
+     * A copy that signs and verifies exactly like this instance but records its
+     * timers to {@code meterRegistry}, so synthetic calls stay out of the
+     * production meters.
+     */
+    public JwtService withMeterRegistry(MeterRegistry meterRegistry) {
+        JwtService copy = new JwtService(keyRing, meterRegistry);
+        copy.expirationTime = expirationTime;
+        copy.parser = parser;
+        return copy;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation, String outcome) {
+        return Timer.builder("auth.jwt")
+                .description("Time to sign or verify an access token")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void init() {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        if (!legacyAcceptUntil.isBlank()) {
+            legacyCutoff = Instant.parse(legacyAcceptUntil);
+            Instant latest = Instant.now().plusMillis(expirationTime);
+            if (legacyCutoff.isAfter(latest)) {
+                throw new IllegalStateException("auth.jwt.legacy-hs256-accept-until (" + legacyCutoff
+                        + ") must be within one token lifetime (" + Duration.ofMillis(expirationTime) + ") of now");
+            }
+            legacyKey = Keys.hmacShaKeyFor(requireSecret(secret).getBytes(StandardCharsets.UTF_8));
+        }
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String keyId = header.getKeyId();
+                        if (keyId == null) {
+                            if (legacyKey == null || Instant.now().isAfter(legacyCutoff)) {
+                                throw new SignatureException("Tokens without a key id are no longer accepted");
+                            }
+                            return legacyKey;
+                        }
+                        PublicKey publicKey = keyRing.verificationKey(keyId);
+                        if (publicKey == null) {
+                            throw new SignatureException("Unknown signing key: " + keyId);
+                        }
+                        return publicKey;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns {@code jwt.secret} if it is fit to protect keys, failing startup
+     * when it is missing, short, or the value that used to be the default.
+     */
+    public static String requireSecret(String secret) {
+        if (secret == null || secret.isBlank() || FORMER_DEFAULT_SECRET.equals(secret)) {
+            throw new IllegalStateException("jwt.secret (JWT_SECRET) must be set to a deployment-specific value");
+        }
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return secret;
     }
 
     public String generateToken(String username) {
+        return timed(signTimer, signErrorTimer, () -> sign(username));
+    }
+
+    private String sign(String username) {
+        JwtSigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
@@ -46,20 +163,29 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and expiry of {@code token} and returns its claims.
+     * Throws a {@link io.jsonwebtoken.JwtException} if the token is not valid.
+     */
+    public Claims extractAllClaims(String token) {
+        return timed(verifyTimer, verifyErrorTimer, () -> parser.parseClaimsJws(token)
+                .getBody());
     }
 
-    public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+    private static <T> T timed(Timer success, Timer error, Supplier<T> call) {
+        long startedAt = System.nanoTime();
+        try {
+            T result = call.get();
+            success.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            error.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    public boolean isTokenValid(String token, String username) {
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(username) && !claims.getExpiration().before(new Date());
     }
 }
@@ -0,0 +1,11 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+
+/**
+ * One ES256 key pair of the JWT key ring, identified by its {@code kid}.
+ */
+public record JwtSigningKey(String kid, PublicKey publicKey, PrivateKey privateKey, Instant createdAt) {
+}
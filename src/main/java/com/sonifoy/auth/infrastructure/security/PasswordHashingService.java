@@ -0,0 +1,145 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated, bounded worker pool so
+ * that BCrypt never executes on reactor-netty event-loop threads. When the
+ * queue is full, callers are rejected immediately with a 503 instead of piling
+ * up behind the CPU-bound work. Results are delivered on the parallel
+ * scheduler, so workers only ever run BCrypt.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final BCryptCostCalibrator costCalibrator;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+            BCryptCostCalibrator costCalibrator,
+            MeterRegistry meterRegistry,
+            @Value("${auth.password-hashing.pool-size:0}") int poolSize,
+            @Value("${auth.password-hashing.queue-capacity:256}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.costCalibrator = costCalibrator;
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing workers currently busy")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.hash.wait")
+                .description("Time a hashing task spent queued before a worker picked it up")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.password.hash.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash.duration")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+                .description("Hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+
+        log.info("Password hashing pool started with {} workers and queue capacity {}", threads, queueCapacity);
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the stored hash was produced with a lower cost than the one this
+     * node is configured for, so it should be re-encoded after a successful login.
+     * Hashes are never downgraded: nodes calibrate independently, and rehashing
+     * in both directions would re-encode the same account on every login as it
+     * moves between nodes that settled on different costs.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        int storedCost = BCryptCostCalibrator.costOf(encodedPassword);
+        return storedCost > 0 && storedCost < costCalibrator.getCost();
+    }
+
+    private <T> Mono<T> submit(Timer hashTimer, Supplier<T> task) {
+        return Mono.create(sink -> {
+            long enqueuedAt = System.nanoTime();
+            try {
+                Future<?> future = executor.submit(() -> {
+                    long startedAt = System.nanoTime();
+                    waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                    try {
+                        sink.success(task.get());
+                    } catch (Throwable e) {
+                        sink.error(e);
+                    } finally {
+                        hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    }
+                });
+                sink.onCancel(() -> future.cancel(false));
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                sink.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Password hashing capacity exhausted"));
+            }
+        })
+                // Hand the result off so the caller's downstream work never runs on a hashing worker
+                .publishOn(Schedulers.parallel());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
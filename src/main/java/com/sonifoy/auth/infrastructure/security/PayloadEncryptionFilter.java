@@ -1,6 +1,9 @@
 package com.sonifoy.auth.infrastructure.security;
 
 import com.sonifoy.auth.infrastructure.security.crypto.CryptoService;
+import com.sonifoy.auth.infrastructure.security.crypto.EnvelopeFormat;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
@@ -19,12 +22,17 @@ import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Filter that transparently decrypts incoming request bodies and encrypts
  * outgoing responses
- * using dynamic session keys fetched from Redis.
+ * using dynamic session keys fetched from Redis. Envelope sizes are recorded
+ * as {@code auth.payload.encrypted.bytes} per route and direction.
  */
 @Component
 @org.springframework.core.annotation.Order(-10)
@@ -33,6 +41,10 @@ public class PayloadEncryptionFilter implements WebFilter {
 
     private final CryptoService cryptoService;
     private final SessionKeyStore sessionKeyStore;
+    private final PayloadRouteClassifier routeClassifier;
+    private final MeterRegistry meterRegistry;
+    // One entry per configured route name, so the map stays as small as the route table
+    private final Map<String, EncryptedTraffic> trafficByRoute = new ConcurrentHashMap<>();
     private static final String SESSION_ID_HEADER = "X-Session-ID";
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PayloadEncryptionFilter.class);
 
@@ -48,12 +60,11 @@ public class PayloadEncryptionFilter implements WebFilter {
             return chain.filter(exchange);
         }
 
-        // 2. Skip specific paths WITHOUT session check (Critical for handshake and
-        // auth)
-        if (path.contains("/handshake") || path.contains("/actuator") ||
-                path.contains("/maintenance") || path.contains("/exploration") ||
-                path.contains("/ranking") || path.contains("/auth")) {
-            log.debug("Skipping encryption for path: {}", path);
+        // 2. Skip bypass routes WITHOUT session check (Critical for handshake and
+        // auth); see auth.payload-encryption.routes
+        PayloadRoutePolicy policy = routeClassifier.classify(exchange.getRequest().getPath().pathWithinApplication());
+        if (policy.bypass()) {
+            log.debug("Skipping encryption for path: {} (route {})", path, policy.name());
             return chain.filter(exchange);
         }
 
@@ -70,74 +81,129 @@ public class PayloadEncryptionFilter implements WebFilter {
                 }))
                 .flatMap(sessionKey -> {
                     log.debug("Session key found for ID: {}. Proceeding with request to {}", sessionId, path);
-                    ServerHttpResponse mutatedResponse = decorateResponse(exchange, sessionKey, sessionId);
+                    EncryptedTraffic traffic = trafficByRoute.computeIfAbsent(policy.name(), this::traffic);
+                    ServerHttpResponse mutatedResponse = policy.encryptResponse()
+                            ? decorateResponse(exchange, sessionKey, sessionId, responseFormat(exchange),
+                                    traffic.out())
+                            : exchange.getResponse();
 
-                    if (isDecryptionRequired(exchange)) {
-                        log.debug("Decryption required for {} {}", method, path);
+                    EnvelopeFormat requestFormat = policy.decryptRequest() ? requestFormat(exchange) : null;
+                    if (requestFormat != null) {
+                        log.debug("Decryption required for {} {} ({})", method, path, requestFormat);
                         return decryptRequestBody(exchange.mutate().response(mutatedResponse).build(), chain,
-                                sessionKey, sessionId);
+                                sessionKey, sessionId, requestFormat, traffic.in());
                     }
                     return chain.filter(exchange.mutate().response(mutatedResponse).build());
                 });
     }
 
-    private boolean isDecryptionRequired(ServerWebExchange exchange) {
+    /**
+     * Envelope format of the request body, or {@code null} when the request
+     * carries no encrypted body.
+     */
+    private EnvelopeFormat requestFormat(ServerWebExchange exchange) {
         String method = exchange.getRequest().getMethod().name();
         MediaType contentType = exchange.getRequest().getHeaders().getContentType();
-        return (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) &&
-                contentType != null && contentType.isCompatibleWith(MediaType.TEXT_PLAIN);
+        if (!(method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) || contentType == null) {
+            return null;
+        }
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_OCTET_STREAM)) {
+            return EnvelopeFormat.BINARY;
+        }
+        return contentType.isCompatibleWith(MediaType.TEXT_PLAIN) ? EnvelopeFormat.TEXT : null;
+    }
+
+    /**
+     * Clients opt in to binary responses by sending a binary body or by listing
+     * {@code application/octet-stream} explicitly in {@code Accept}; wildcards
+     * keep the text format so existing clients are unaffected.
+     */
+    private EnvelopeFormat responseFormat(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        MediaType contentType = headers.getContentType();
+        if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_OCTET_STREAM)) {
+            return EnvelopeFormat.BINARY;
+        }
+        for (MediaType accepted : headers.getAccept()) {
+            if (MediaType.APPLICATION_OCTET_STREAM.equalsTypeAndSubtype(accepted)) {
+                return EnvelopeFormat.BINARY;
+            }
+        }
+        return EnvelopeFormat.TEXT;
     }
 
     private Mono<Void> decryptRequestBody(ServerWebExchange exchange, WebFilterChain chain, byte[] sessionKey,
-            String sessionId) {
+            String sessionId, EnvelopeFormat format, DistributionSummary encryptedBytesIn) {
         return DataBufferUtils.join(exchange.getRequest().getBody())
                 .flatMap(dataBuffer -> {
-                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                    dataBuffer.read(bytes);
-                    DataBufferUtils.release(dataBuffer);
-
-                    String bodyStr = new String(bytes, StandardCharsets.UTF_8).trim();
-                    // Remove potential surrounding quotes from Dio/HttpClient
-                    if (bodyStr.startsWith("\"") && bodyStr.endsWith("\"")) {
-                        bodyStr = bodyStr.substring(1, bodyStr.length() - 1);
-                    }
-
+                    encryptedBytesIn.record(dataBuffer.readableByteCount());
+                    byte[] decryptedBytes;
                     try {
-                        String decryptedJson = cryptoService.decrypt(bodyStr, sessionKey);
-                        log.info("[PayloadEncryptionFilter] Decrypted body ({} chars)", decryptedJson.length());
-                        byte[] decryptedBytes = decryptedJson.getBytes(StandardCharsets.UTF_8);
-
-                        // 1. Create a request with updated headers and body
-                        ServerHttpRequest mutatedRequest = new ServerHttpRequestDecorator(exchange.getRequest()) {
-                            @Override
-                            public HttpHeaders getHeaders() {
-                                HttpHeaders headers = new HttpHeaders();
-                                headers.putAll(super.getHeaders());
-                                headers.setContentType(MediaType.APPLICATION_JSON);
-                                headers.setContentLength(decryptedBytes.length);
-                                return headers;
-                            }
-
-                            @Override
-                            public Flux<DataBuffer> getBody() {
-                                return Flux.just(exchange.getResponse().bufferFactory().wrap(decryptedBytes));
-                            }
-                        };
-
-                        // 2. Build final exchange and process chain
-                        return chain.filter(exchange.mutate().request(mutatedRequest).build())
-                                .then(Mono.just(true)); // Emit something to prevent switchIfEmpty
+                        decryptedBytes = decryptEnvelope(dataBuffer, sessionKey, format);
                     } catch (Exception e) {
                         log.error("Decryption failed for session: {}", sessionId, e);
                         return Mono.error(
                                 new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid encrypted payload"));
+                    } finally {
+                        DataBufferUtils.release(dataBuffer);
                     }
+                    log.info("[PayloadEncryptionFilter] Decrypted body ({} bytes)", decryptedBytes.length);
+
+                    // 1. Create a request with updated headers and body
+                    ServerHttpRequest mutatedRequest = new ServerHttpRequestDecorator(exchange.getRequest()) {
+                        @Override
+                        public HttpHeaders getHeaders() {
+                            HttpHeaders headers = new HttpHeaders();
+                            headers.putAll(super.getHeaders());
+                            headers.setContentType(MediaType.APPLICATION_JSON);
+                            headers.setContentLength(decryptedBytes.length);
+                            return headers;
+                        }
+
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            // Wraps the cipher output without copying
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory()
+                                    .wrap(decryptedBytes)));
+                        }
+                    };
+
+                    // 2. Build final exchange and process chain
+                    return chain.filter(exchange.mutate().request(mutatedRequest).build())
+                            .then(Mono.just(true)); // Emit something to prevent switchIfEmpty
                 })
                 .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).then(Mono.just(true))))
                 .then();
     }
 
-    private ServerHttpResponse decorateResponse(ServerWebExchange exchange, byte[] sessionKey, String sessionId) {
+    /**
+     * Decrypts the joined request body in place. Text envelopes skip surrounding
+     * whitespace and the quotes some HTTP clients (Dio/HttpClient) add around
+     * text bodies.
+     */
+    private byte[] decryptEnvelope(DataBuffer body, byte[] sessionKey, EnvelopeFormat format) {
+        if (format == EnvelopeFormat.BINARY) {
+            return applyToReadable(body, 0, body.readableByteCount(),
+                    envelope -> cryptoService.decrypt(envelope, sessionKey, EnvelopeFormat.BINARY));
+        }
+        int base = body.readPosition();
+        int start = 0;
+        int end = body.readableByteCount();
+        while (start < end && body.getByte(base + start) <= ' ') {
+            start++;
+        }
+        while (end > start && body.getByte(base + end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && body.getByte(base + start) == '"' && body.getByte(base + end - 1) == '"') {
+            start++;
+            end--;
+        }
+        return applyToReadable(body, start, end - start, envelope -> cryptoService.decrypt(envelope, sessionKey));
+    }
+
+    private ServerHttpResponse decorateResponse(ServerWebExchange exchange, byte[] sessionKey, String sessionId,
+            EnvelopeFormat format, DistributionSummary encryptedBytesOut) {
         return new ServerHttpResponseDecorator(exchange.getResponse()) {
             @Override
             public Mono<Void> writeWith(org.reactivestreams.Publisher<? extends DataBuffer> body) {
@@ -155,43 +221,41 @@ public class PayloadEncryptionFilter implements WebFilter {
 
                     return DataBufferUtils.join(Flux.from(body))
                             .flatMap(dataBuffer -> {
-                                if (dataBuffer.readableByteCount() == 0) {
+                                int length = dataBuffer.readableByteCount();
+                                if (length == 0) {
+                                    DataBufferUtils.release(dataBuffer);
                                     getDelegate().getHeaders().setContentLength(0);
                                     return super.writeWith(Mono.empty());
                                 }
-                                byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                                dataBuffer.read(bytes);
-                                DataBufferUtils.release(dataBuffer);
-
-                                try {
-                                    String plainBody = new String(bytes, StandardCharsets.UTF_8);
-
-                                    // Robust check for already encrypted content (IV:Ciphertext)
-                                    // Encrypted strings won't start with { or [ which are JSON markers
-                                    boolean isProbablyJson = plainBody.trim().startsWith("{")
-                                            || plainBody.trim().startsWith("[");
-
-                                    if (!isProbablyJson && plainBody.contains(":")) {
-                                        log.debug(
-                                                "[PayloadEncryptionFilter] Response seems already encrypted, skipping.");
-                                        return super.writeWith(Mono.just(getDelegate().bufferFactory().wrap(bytes)));
-                                    }
-
-                                    log.debug("[PayloadEncryptionFilter] Encrypting JSON response ({} bytes)",
-                                            bytes.length);
-                                    String encrypted = cryptoService.encrypt(plainBody, sessionKey);
-                                    byte[] encryptedBytes = encrypted.getBytes(StandardCharsets.UTF_8);
 
-                                    getHeaders().setContentType(MediaType.TEXT_PLAIN);
-                                    getHeaders().setContentLength(encryptedBytes.length);
+                                // Robust check for already encrypted content (IV:Ciphertext)
+                                // Encrypted strings won't start with { or [ which are JSON markers
+                                if (!startsLikeJson(dataBuffer) && indexOf(dataBuffer, (byte) ':') >= 0) {
+                                    log.debug("[PayloadEncryptionFilter] Response seems already encrypted, skipping.");
+                                    return super.writeWith(Mono.just(dataBuffer));
+                                }
 
-                                    return super.writeWith(
-                                            Mono.just(getDelegate().bufferFactory().wrap(encryptedBytes)));
+                                log.debug("[PayloadEncryptionFilter] Encrypting JSON response ({} bytes, {})", length,
+                                        format);
+                                DataBuffer encrypted = bufferFactory().allocateBuffer(
+                                        CryptoService.envelopeLength(length, format));
+                                try {
+                                    applyToReadable(dataBuffer, 0, length, plain -> {
+                                        cryptoService.encrypt(plain, sessionKey, format, encrypted.asOutputStream());
+                                        return null;
+                                    });
                                 } catch (Exception e) {
                                     log.error("Encryption failed for session: {}", sessionId, e);
+                                    DataBufferUtils.release(encrypted);
                                     // Fallback: send as is
-                                    return super.writeWith(Mono.just(getDelegate().bufferFactory().wrap(bytes)));
+                                    return super.writeWith(Mono.just(dataBuffer));
                                 }
+                                DataBufferUtils.release(dataBuffer);
+
+                                encryptedBytesOut.record(encrypted.readableByteCount());
+                                getHeaders().setContentType(format.getMediaType());
+                                getHeaders().setContentLength(encrypted.readableByteCount());
+                                return super.writeWith(Mono.just(encrypted));
                             })
                             .switchIfEmpty(super.writeWith(body));
                 }
@@ -199,4 +263,62 @@ public class PayloadEncryptionFilter implements WebFilter {
             }
         };
     }
+
+    private EncryptedTraffic traffic(String route) {
+        return new EncryptedTraffic(encryptedBytes(route, "in"), encryptedBytes(route, "out"));
+    }
+
+    private DistributionSummary encryptedBytes(String route, String direction) {
+        return DistributionSummary.builder("auth.payload.encrypted.bytes")
+                .description("Size of encrypted request and response bodies per route")
+                .baseUnit("bytes")
+                .tag("route", route)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private record EncryptedTraffic(DistributionSummary in, DistributionSummary out) {
+    }
+
+    private static boolean startsLikeJson(DataBuffer buffer) {
+        int end = buffer.writePosition();
+        for (int i = buffer.readPosition(); i < end; i++) {
+            byte b = buffer.getByte(i);
+            if (b > ' ') {
+                return b == '{' || b == '[';
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(DataBuffer buffer, byte value) {
+        int end = buffer.writePosition();
+        for (int i = buffer.readPosition(); i < end; i++) {
+            if (buffer.getByte(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Applies {@code function} to a {@link ByteBuffer} view of {@code length}
+     * readable bytes starting {@code offset} bytes past the read position. The
+     * view shares memory with the buffer when it is contiguous; only a composite
+     * buffer is copied, once, into a heap array.
+     */
+    private static <T> T applyToReadable(DataBuffer buffer, int offset, int length,
+            Function<ByteBuffer, T> function) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            if (iterator.hasNext()) {
+                ByteBuffer first = iterator.next();
+                if (!iterator.hasNext() && first.remaining() == buffer.readableByteCount()) {
+                    return function.apply(first.slice(first.position() + offset, length));
+                }
+            }
+        }
+        byte[] copy = new byte[length];
+        buffer.toByteBuffer(buffer.readPosition() + offset, ByteBuffer.wrap(copy), 0, length);
+        return function.apply(ByteBuffer.wrap(copy));
+    }
 }
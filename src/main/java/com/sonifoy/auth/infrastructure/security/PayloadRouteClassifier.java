@@ -0,0 +1,125 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the {@link PayloadRoutePolicy} for a request path. The configured
+ * patterns are compiled once into a trie keyed by their leading literal
+ * segments; a lookup walks the path's segments down the trie and only tests
+ * the few patterns hanging off the deepest nodes it reaches, so the cost is
+ * linear in the path length rather than in the number of rules.
+ */
+@Component
+@Slf4j
+public class PayloadRouteClassifier {
+
+    private final Node root = new Node();
+    private final Counter defaultCounter;
+
+    public PayloadRouteClassifier(PayloadRouteProperties properties, MeterRegistry meterRegistry) {
+        PathPatternParser parser = new PathPatternParser();
+        int order = 0;
+        for (PayloadRouteProperties.Route route : properties.getRoutes()) {
+            PayloadRoutePolicy policy = PayloadRoutePolicy.of(route);
+            Counter counter = counter(meterRegistry, policy);
+            for (String pattern : route.getPatterns()) {
+                insert(new Rule(parser.parse(pattern), policy, counter, order++));
+            }
+        }
+        sort(root);
+        this.defaultCounter = counter(meterRegistry, PayloadRoutePolicy.DEFAULT);
+        log.info("Compiled {} payload encryption route patterns", order);
+    }
+
+    public PayloadRoutePolicy classify(PathContainer path) {
+        Rule rule = find(path);
+        if (rule == null) {
+            defaultCounter.increment();
+            return PayloadRoutePolicy.DEFAULT;
+        }
+        rule.counter().increment();
+        return rule.policy();
+    }
+
+    private Rule find(PathContainer path) {
+        // Remember the nodes visited so the most specific (deepest) prefix is tried first
+        List<Node> visited = new ArrayList<>();
+        Node node = root;
+        visited.add(node);
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                node = node.children.get(segment.valueToMatch());
+                if (node == null) {
+                    break;
+                }
+                visited.add(node);
+            }
+        }
+        for (int i = visited.size() - 1; i >= 0; i--) {
+            for (Rule rule : visited.get(i).rules) {
+                if (rule.pattern().matches(path)) {
+                    return rule;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void insert(Rule rule) {
+        Node node = root;
+        for (String segment : rule.pattern().getPatternString().split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (!isLiteral(segment)) {
+                break;
+            }
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        node.rules.add(rule);
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void sort(Node node) {
+        node.rules.sort(Comparator.comparing(Rule::pattern, PathPattern.SPECIFICITY_COMPARATOR)
+                .thenComparingInt(Rule::order));
+        node.children.values().forEach(PayloadRouteClassifier::sort);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, PayloadRoutePolicy policy) {
+        return Counter.builder("auth.payload.route.requests")
+                .description("Requests seen by the payload encryption filter per configured route")
+                .tag("route", policy.name())
+                .tag("classification", policy.classification())
+                .register(meterRegistry);
+    }
+
+    private record Rule(PathPattern pattern, PayloadRoutePolicy policy, Counter counter, int order) {
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Rule> rules = new ArrayList<>();
+    }
+}
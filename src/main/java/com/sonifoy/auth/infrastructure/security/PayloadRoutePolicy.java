@@ -0,0 +1,25 @@
+package com.sonifoy.auth.infrastructure.security;
+
+/**
+ * How {@link PayloadEncryptionFilter} treats a request, as resolved by
+ * {@link PayloadRouteClassifier}.
+ */
+public record PayloadRoutePolicy(String name, boolean bypass, boolean decryptRequest, boolean encryptResponse) {
+
+    public static final PayloadRoutePolicy DEFAULT = new PayloadRoutePolicy("default", false, true, true);
+
+    static PayloadRoutePolicy of(PayloadRouteProperties.Route route) {
+        return new PayloadRoutePolicy(route.getName(), route.isBypass(), route.isDecryptRequest(),
+                route.isEncryptResponse());
+    }
+
+    String classification() {
+        if (bypass) {
+            return "bypass";
+        }
+        if (decryptRequest && encryptResponse) {
+            return "encrypted";
+        }
+        return decryptRequest ? "decrypt-only" : encryptResponse ? "encrypt-only" : "session-only";
+    }
+}
@@ -0,0 +1,32 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route rules for {@link PayloadEncryptionFilter}, bound from
+ * {@code auth.payload-encryption.routes}. Patterns use Spring
+ * {@link org.springframework.web.util.pattern.PathPattern} syntax; requests that
+ * match no rule must carry a session and are decrypted and encrypted.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.payload-encryption")
+public class PayloadRouteProperties {
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String name;
+        private List<String> patterns = new ArrayList<>();
+        // Skip the session check and all payload handling
+        private boolean bypass;
+        private boolean decryptRequest = true;
+        private boolean encryptResponse = true;
+    }
+}
@@ -1,42 +1,209 @@
 package com.sonifoy.auth.infrastructure.security;
 
+import com.sonifoy.auth.infrastructure.config.OperationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnection.KeyCommand;
+import org.springframework.data.redis.connection.ReactiveRedisConnection.NumericResponse;
+import org.springframework.data.redis.connection.ReactiveStringCommands;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
+/**
+ * Stores raw 32-byte session keys under compact binary Redis keys (see
+ * {@link SessionKeyCodec}). Bulk operations use a single MGET/DEL or one
+ * pipelined batch of SETs. Reads fetch each key's PTTL in the same pipeline as
+ * the MGET, so callers that cache keys know how long they remain valid, and
+ * fall back to legacy Base64 entries with one more MGET for the misses. Each
+ * operation is timed as {@code auth.redis} with
+ * {@code store=session_keys}.
+ */
 @Service
 public class RedisSessionKeyStore implements SessionKeyStore {
 
-    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    // Base64 text entries written before the binary format; they expire within KEY_TTL of the upgrade
+    private static final String LEGACY_KEY_PREFIX = "session:key:";
+    private static final Duration KEY_TTL = Duration.ofHours(24);
+
+    private final ReactiveRedisTemplate<byte[], byte[]> redisTemplate;
+    private final ReactiveRedisTemplate<String, String> legacyRedisTemplate;
+    private final OperationTimer saveKeyTimer;
+    private final OperationTimer getKeyTimer;
+    private final OperationTimer removeKeyTimer;
+    private final OperationTimer getKeysTimer;
+    private final OperationTimer saveKeysTimer;
+    private final OperationTimer removeKeysTimer;
 
     public RedisSessionKeyStore(
-            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate) {
+            @Qualifier("binaryRedisTemplate") ReactiveRedisTemplate<byte[], byte[]> redisTemplate,
+            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> legacyRedisTemplate,
+            MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.legacyRedisTemplate = legacyRedisTemplate;
+        this.saveKeyTimer = redisTimer(meterRegistry, "save_key");
+        this.getKeyTimer = redisTimer(meterRegistry, "get_key");
+        this.removeKeyTimer = redisTimer(meterRegistry, "remove_key");
+        this.getKeysTimer = redisTimer(meterRegistry, "get_keys");
+        this.saveKeysTimer = redisTimer(meterRegistry, "save_keys");
+        this.removeKeysTimer = redisTimer(meterRegistry, "remove_keys");
     }
 
-    private static final String KEY_PREFIX = "session:key:";
-    private static final Duration KEY_TTL = Duration.ofHours(24);
+    private static OperationTimer redisTimer(MeterRegistry meterRegistry, String operation) {
+        return OperationTimer.register(meterRegistry, "auth.redis", "Latency of a Redis call",
+                "store", "session_keys", "operation", operation);
+    }
 
     public Mono<Void> saveKey(String sessionId, byte[] key) {
-        String encodedKey = Base64.getEncoder().encodeToString(key);
         return redisTemplate.opsForValue()
-                .set(KEY_PREFIX + sessionId, encodedKey, KEY_TTL)
-                .then();
+                .set(SessionKeyCodec.encode(sessionId), key, KEY_TTL)
+                .then()
+                .as(saveKeyTimer::time);
     }
 
     public Mono<byte[]> getKey(String sessionId) {
-        return redisTemplate.opsForValue()
-                .get(KEY_PREFIX + sessionId)
-                .map(encodedKey -> Base64.getDecoder().decode(encodedKey));
+        return getExpiringKey(sessionId).map(ExpiringKey::key);
+    }
+
+    @Override
+    public Mono<ExpiringKey> getExpiringKey(String sessionId) {
+        return readKeys(List.of(sessionId))
+                .mapNotNull(found -> found.get(sessionId))
+                .as(getKeyTimer::time);
     }
 
     public Mono<Void> removeKey(String sessionId) {
-        return redisTemplate.opsForValue()
-                .delete(KEY_PREFIX + sessionId)
-                .then();
+        return Mono.when(
+                        redisTemplate.delete(SessionKeyCodec.encode(sessionId)),
+                        legacyRedisTemplate.delete(LEGACY_KEY_PREFIX + sessionId))
+                .as(removeKeyTimer::time);
+    }
+
+    @Override
+    public Mono<Map<String, byte[]>> getKeys(Collection<String> sessionIds) {
+        return getExpiringKeys(sessionIds).map(found -> {
+            Map<String, byte[]> result = new HashMap<>(found.size() * 2);
+            found.forEach((sessionId, entry) -> result.put(sessionId, entry.key()));
+            return result;
+        });
+    }
+
+    @Override
+    public Mono<Map<String, ExpiringKey>> getExpiringKeys(Collection<String> sessionIds) {
+        return readKeys(sessionIds).as(getKeysTimer::time);
+    }
+
+    private Mono<Map<String, ExpiringKey>> readKeys(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        List<String> ids = new ArrayList<>(sessionIds);
+        List<ByteBuffer> keys = ids.stream().map(id -> ByteBuffer.wrap(SessionKeyCodec.encode(id))).toList();
+        return redisTemplate.execute(connection -> readWithTtl(connection, keys, ByteUtils::getBytes))
+                .next()
+                .map(entries -> {
+                    Map<String, ExpiringKey> found = new HashMap<>(entries.size() * 2);
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (entries.get(i) != null) {
+                            found.put(ids.get(i), entries.get(i));
+                        }
+                    }
+                    return found;
+                })
+                .flatMap(found -> found.size() == ids.size() ? Mono.just(found) : withLegacyKeys(ids, found));
+    }
+
+    /**
+     * Fills the misses of a read from legacy entries with one more MGET, so keys
+     * written before the binary format still resolve, singly and in bulk.
+     */
+    private Mono<Map<String, ExpiringKey>> withLegacyKeys(List<String> ids, Map<String, ExpiringKey> found) {
+        List<String> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        List<ByteBuffer> legacyKeys = missing.stream()
+                .map(id -> ByteBuffer.wrap((LEGACY_KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8)))
+                .toList();
+        return legacyRedisTemplate.execute(connection -> readWithTtl(connection, legacyKeys,
+                        value -> Base64.getDecoder().decode(ByteUtils.getBytes(value))))
+                .next()
+                .map(entries -> {
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (entries.get(i) != null) {
+                            found.put(missing.get(i), entries.get(i));
+                        }
+                    }
+                    return found;
+                });
+    }
+
+    /**
+     * One MGET and the PTTL of every key, issued together so the connection
+     * pipelines them. Entries are in key order; missing keys are null.
+     */
+    private static Mono<List<ExpiringKey>> readWithTtl(ReactiveRedisConnection connection, List<ByteBuffer> keys,
+            Function<ByteBuffer, byte[]> decode) {
+        Mono<List<Long>> ttls = connection.keyCommands()
+                .pTtl(Flux.fromIterable(keys).map(KeyCommand::new))
+                .map(NumericResponse::getOutput)
+                .collectList();
+        return Mono.zip(connection.stringCommands().mGet(keys), ttls, (values, pttls) -> {
+            List<ExpiringKey> entries = new ArrayList<>(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                ByteBuffer value = values.get(i);
+                entries.add(value == null || !value.hasRemaining()
+                        ? null
+                        : new ExpiringKey(decode.apply(value), remaining(pttls.get(i))));
+            }
+            return entries;
+        });
+    }
+
+    // PTTL is -1 for a key without expiry and -2 for one that expired after the MGET read it
+    private static Duration remaining(long pttl) {
+        if (pttl >= 0) {
+            return Duration.ofMillis(pttl);
+        }
+        return pttl == -1 ? null : Duration.ZERO;
+    }
+
+    @Override
+    public Mono<Void> saveKeys(Map<String, byte[]> keys) {
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        Expiration expiration = Expiration.seconds(KEY_TTL.toSeconds());
+        Flux<ReactiveStringCommands.SetCommand> commands = Flux.fromIterable(keys.entrySet())
+                .map(entry -> ReactiveStringCommands.SetCommand
+                        .set(ByteBuffer.wrap(SessionKeyCodec.encode(entry.getKey())))
+                        .value(ByteBuffer.wrap(entry.getValue()))
+                        .expiring(expiration));
+        return redisTemplate.execute(connection -> connection.stringCommands().set(commands))
+                .then()
+                .as(saveKeysTimer::time);
+    }
+
+    @Override
+    public Mono<Void> removeKeys(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Mono.empty();
+        }
+        byte[][] keys = sessionIds.stream().map(SessionKeyCodec::encode).toArray(byte[][]::new);
+        String[] legacyKeys = sessionIds.stream().map(id -> LEGACY_KEY_PREFIX + id).toArray(String[]::new);
+        return Mono.when(redisTemplate.delete(keys), legacyRedisTemplate.delete(legacyKeys))
+                .as(removeKeysTimer::time);
     }
 }
@@ -15,16 +15,20 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BCryptCostCalibrator costCalibrator) {
+        return new BCryptPasswordEncoder(costCalibrator.getCost());
     }
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+            JwtAuthenticationManager jwtAuthenticationManager,
+            JwtSecurityContextRepository jwtSecurityContextRepository) {
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authenticationManager(jwtAuthenticationManager)
+                .securityContextRepository(jwtSecurityContextRepository)
                 .authorizeExchange(exchanges -> exchanges
-                        .pathMatchers("/api/v1/auth/**", "/actuator/**").permitAll()
+                        .pathMatchers("/api/v1/auth/**", "/actuator/**", "/.well-known/**").permitAll()
                         .pathMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/webjars/**")
                         .permitAll()
                         .anyExchange().authenticated())
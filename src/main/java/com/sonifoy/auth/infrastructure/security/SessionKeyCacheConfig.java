@@ -0,0 +1,27 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "auth.session-key-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SessionKeyCacheConfig {
+
+    @Bean
+    @Primary
+    public CachingSessionKeyStore cachingSessionKeyStore(RedisSessionKeyStore redisSessionKeyStore,
+            @Qualifier("reactiveRedisTemplate") ReactiveRedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth.session-key-cache.maximum-size:100000}") long maximumSize,
+            @Value("${auth.session-key-cache.ttl:10m}") Duration ttl) {
+        return new CachingSessionKeyStore(redisSessionKeyStore, redisTemplate, meterRegistry, maximumSize, ttl);
+    }
+}
@@ -0,0 +1,53 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Compact Redis key encoding for session keys. UUID session ids, which is what
+ * {@code AuthService.login} issues, are stored as {@code "sk" 0x01} followed by
+ * the 16 raw UUID bytes (19 bytes instead of the 48-character
+ * {@code "session:key:<uuid>"}); any other id falls back to
+ * {@code "sk" 0x02} plus its UTF-8 bytes.
+ */
+final class SessionKeyCodec {
+
+    private static final byte[] PREFIX = {'s', 'k'};
+    private static final byte UUID_TAG = 1;
+    private static final byte STRING_TAG = 2;
+
+    private SessionKeyCodec() {
+    }
+
+    static byte[] encode(String sessionId) {
+        UUID uuid = parseUuid(sessionId);
+        if (uuid != null) {
+            return ByteBuffer.allocate(PREFIX.length + 1 + 16)
+                    .put(PREFIX)
+                    .put(UUID_TAG)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+        }
+        byte[] id = sessionId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(PREFIX.length + 1 + id.length)
+                .put(PREFIX)
+                .put(STRING_TAG)
+                .put(id)
+                .array();
+    }
+
+    private static UUID parseUuid(String sessionId) {
+        // Only accept the canonical 36-character form so encode() stays injective
+        if (sessionId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(sessionId);
+            return uuid.toString().equals(sessionId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
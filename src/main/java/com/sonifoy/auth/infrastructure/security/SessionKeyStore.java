@@ -1,11 +1,62 @@
 package com.sonifoy.auth.infrastructure.security;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface SessionKeyStore {
+
+    /**
+     * A session key with the time it has left in the store; {@code remaining} is
+     * null when the store does not know or the key does not expire.
+     */
+    record ExpiringKey(byte[] key, Duration remaining) {
+    }
+
     Mono<Void> saveKey(String sessionId, byte[] key);
 
     Mono<byte[]> getKey(String sessionId);
 
     Mono<Void> removeKey(String sessionId);
+
+    /**
+     * Looks up several sessions at once; sessions without a key are absent from
+     * the result.
+     */
+    default Mono<Map<String, byte[]>> getKeys(Collection<String> sessionIds) {
+        return Flux.fromIterable(sessionIds)
+                .flatMap(sessionId -> getKey(sessionId).map(key -> Map.entry(sessionId, key)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    default Mono<ExpiringKey> getExpiringKey(String sessionId) {
+        return getKey(sessionId).map(key -> new ExpiringKey(key, null));
+    }
+
+    /**
+     * {@link #getKeys} with the time each key has left in the store.
+     */
+    default Mono<Map<String, ExpiringKey>> getExpiringKeys(Collection<String> sessionIds) {
+        return getKeys(sessionIds).map(keys -> {
+            Map<String, ExpiringKey> result = new HashMap<>(keys.size() * 2);
+            keys.forEach((sessionId, key) -> result.put(sessionId, new ExpiringKey(key, null)));
+            return result;
+        });
+    }
+
+    default Mono<Void> saveKeys(Map<String, byte[]> keys) {
+        return Flux.fromIterable(keys.entrySet())
+                .flatMap(entry -> saveKey(entry.getKey(), entry.getValue()))
+                .then();
+    }
+
+    default Mono<Void> removeKeys(Collection<String> sessionIds) {
+        return Flux.fromIterable(sessionIds)
+                .flatMap(this::removeKey)
+                .then();
+    }
 }
@@ -0,0 +1,27 @@
+package com.sonifoy.auth.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests of bearer and refresh tokens, used wherever a token has to be
+ * looked up without keeping the token itself.
+ */
+public final class TokenDigests {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private TokenDigests() {
+    }
+
+    public static byte[] sha256(String token) {
+        return SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,27 @@
+package com.sonifoy.auth.infrastructure.security.crypto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Wire formats for encrypted payloads.
+ * <ul>
+ * <li>{@link #TEXT}: {@code base64(IV):base64(ciphertext+tag)} as
+ * {@code text/plain}, used by existing clients.</li>
+ * <li>{@link #BINARY}: version byte, 12-byte IV, then ciphertext+tag as
+ * {@code application/octet-stream}; about 25% smaller and no text parsing.</li>
+ * </ul>
+ */
+public enum EnvelopeFormat {
+    TEXT(MediaType.TEXT_PLAIN),
+    BINARY(MediaType.APPLICATION_OCTET_STREAM);
+
+    private final MediaType mediaType;
+
+    EnvelopeFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,51 @@
+package com.sonifoy.auth.infrastructure.security.crypto;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of AES {@link SecretKey}s keyed by the raw session key bytes,
+ * so the key schedule object is built once per session instead of per call.
+ * When full, an arbitrary entry is evicted; session keys are short-lived and a
+ * miss only costs one {@link SecretKeySpec} allocation.
+ */
+class SecretKeyCache {
+
+    private static final int AES_KEY_LENGTH = 32;
+
+    private final ConcurrentHashMap<ByteBuffer, SecretKey> keys = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    SecretKeyCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    SecretKey get(byte[] keyBytes) {
+        SecretKey cached = keys.get(ByteBuffer.wrap(keyBytes));
+        if (cached != null) {
+            return cached;
+        }
+        SecretKey key = new SecretKeySpec(Arrays.copyOf(keyBytes, AES_KEY_LENGTH), "AES");
+        if (keys.size() >= maxSize) {
+            evictOne();
+        }
+        keys.putIfAbsent(ByteBuffer.wrap(keyBytes.clone()), key);
+        return key;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    private void evictOne() {
+        Iterator<ByteBuffer> iterator = keys.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
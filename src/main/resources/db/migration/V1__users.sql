@@ -1,15 +1,3 @@
--- Migrations for existing tables
-ALTER TABLE users ADD COLUMN IF NOT EXISTS avatar_url VARCHAR(255);
-ALTER TABLE users ADD COLUMN IF NOT EXISTS roles TEXT[];
-ALTER TABLE users ADD COLUMN IF NOT EXISTS ip_address VARCHAR(45);
-ALTER TABLE users ADD COLUMN IF NOT EXISTS city VARCHAR(100);
-ALTER TABLE users ADD COLUMN IF NOT EXISTS country VARCHAR(100);
-ALTER TABLE users ADD COLUMN IF NOT EXISTS device_data TEXT;
-ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_type VARCHAR(50);
-ALTER TABLE users ADD COLUMN IF NOT EXISTS verified BOOLEAN DEFAULT FALSE;
-ALTER TABLE users ADD COLUMN IF NOT EXISTS created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
-ALTER TABLE users ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
-
 CREATE TABLE IF NOT EXISTS users (
     id SERIAL,
     email VARCHAR(255) NOT NULL,
@@ -34,16 +22,40 @@ CREATE TABLE IF NOT EXISTS users (
     PRIMARY KEY (id, email)
 ) PARTITION BY HASH (email);
 
-CREATE TABLE IF NOT EXISTS users_p0 PARTITION OF users FOR VALUES WITH (MODULUS 4, REMAINDER 0);
-CREATE TABLE IF NOT EXISTS users_p1 PARTITION OF users FOR VALUES WITH (MODULUS 4, REMAINDER 1);
-CREATE TABLE IF NOT EXISTS users_p2 PARTITION OF users FOR VALUES WITH (MODULUS 4, REMAINDER 2);
-CREATE TABLE IF NOT EXISTS users_p3 PARTITION OF users FOR VALUES WITH (MODULUS 4, REMAINDER 3);
+-- Columns added to users over time, for databases whose users table predates them
+ALTER TABLE users ADD COLUMN IF NOT EXISTS avatar_url VARCHAR(255);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS roles TEXT[];
+ALTER TABLE users ADD COLUMN IF NOT EXISTS ip_address VARCHAR(45);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS city VARCHAR(100);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS country VARCHAR(100);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS device_data TEXT;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_type VARCHAR(50);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS verification_code VARCHAR(255);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS verification_code_expires_at TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_login_at TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_active_at TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_session_duration BIGINT;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS verified BOOLEAN DEFAULT FALSE;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+-- Initial partition set only; UserRepartitioningJob moves users online to auth.users.partitions
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits WHERE inhparent = ''users''::regclass) THEN
+        FOR r IN 0..3 LOOP
+            EXECUTE format(''CREATE TABLE users_p%s PARTITION OF users FOR VALUES WITH (MODULUS 4, REMAINDER %s)'', r, r);
+        END LOOP;
+    END IF;
+END';
 
-CREATE TABLE IF NOT EXISTS refresh_tokens (
-    id BIGSERIAL PRIMARY KEY,
-    token VARCHAR(255) UNIQUE NOT NULL,
-    user_id BIGINT NOT NULL,
-    expires_at TIMESTAMP NOT NULL,
-    is_revoked BOOLEAN DEFAULT FALSE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+-- Single-row progress of an online users repartitioning; absent when none is running
+CREATE TABLE IF NOT EXISTS users_repartition (
+    id INT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    target_partitions INT NOT NULL,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    rows_copied BIGINT NOT NULL DEFAULT 0,
+    owner VARCHAR(100),
+    started_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
 );
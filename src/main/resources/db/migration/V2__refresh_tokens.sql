@@ -0,0 +1,102 @@
+-- Replace plaintext tokens with their SHA-256 digests on tables created before token_hash existed
+ALTER TABLE IF EXISTS refresh_tokens ADD COLUMN IF NOT EXISTS token_hash BYTEA;
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = ''refresh_tokens'' AND column_name = ''token'') THEN
+        UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, ''UTF8'')) WHERE token_hash IS NULL;
+        ALTER TABLE refresh_tokens DROP COLUMN token;
+    END IF;
+END';
+
+-- Move an unpartitioned refresh_tokens aside; its live rows are copied into the partitioned table below
+DO '
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass(''refresh_tokens'')) = ''r'' THEN
+        ALTER TABLE refresh_tokens RENAME TO refresh_tokens_unpartitioned;
+        ALTER INDEX IF EXISTS refresh_tokens_pkey RENAME TO refresh_tokens_unpartitioned_pkey;
+        ALTER INDEX IF EXISTS idx_refresh_tokens_token_hash RENAME TO idx_refresh_tokens_unpartitioned_token_hash;
+    END IF;
+END';
+
+-- One partition per day of expires_at, so expired tokens are reclaimed by dropping whole partitions
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGSERIAL,
+    token_hash BYTEA NOT NULL,
+    user_id BIGINT NOT NULL,
+    user_email VARCHAR(255),
+    expires_at TIMESTAMP NOT NULL,
+    is_revoked BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_tokens_token_hash ON refresh_tokens (token_hash, expires_at);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- Creates the daily partitions from today through days_ahead; returns how many were missing
+CREATE OR REPLACE FUNCTION refresh_tokens_create_partitions(days_ahead INT) RETURNS INT AS '
+DECLARE
+    day DATE;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(''refresh_tokens_partitions''));
+    FOR i IN 0..days_ahead LOOP
+        day := CURRENT_DATE + i;
+        partition_name := ''refresh_tokens_'' || to_char(day, ''YYYYMMDD'');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format(''CREATE TABLE %I PARTITION OF refresh_tokens FOR VALUES FROM (%L) TO (%L)'',
+                           partition_name, day, day + 1);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END' LANGUAGE plpgsql;
+
+-- Drops every daily partition whose tokens all expired before yesterday (one day of slack for
+-- JVM/database clock and time zone skew) and reports what each one held
+CREATE OR REPLACE FUNCTION refresh_tokens_drop_expired_partitions()
+RETURNS TABLE (partition_name TEXT, reclaimed_rows BIGINT, reclaimed_bytes BIGINT) AS '
+DECLARE
+    part RECORD;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(''refresh_tokens_partitions''));
+    PERFORM set_config(''lock_timeout'', ''5s'', true);
+    FOR part IN
+        SELECT c.oid, c.relname, c.reltuples
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = ''refresh_tokens''::regclass
+          AND c.relname ~ ''^refresh_tokens_[0-9]{8}$''
+          AND to_date(substring(c.relname FROM 16), ''YYYYMMDD'') < CURRENT_DATE - 1
+        ORDER BY c.relname
+    LOOP
+        partition_name := part.relname;
+        reclaimed_rows := GREATEST(part.reltuples, 0)::BIGINT;
+        reclaimed_bytes := pg_total_relation_size(part.oid);
+        EXECUTE format(''DROP TABLE %I'', part.relname);
+        RETURN NEXT;
+    END LOOP;
+END' LANGUAGE plpgsql;
+
+SELECT refresh_tokens_create_partitions(14);
+
+DO '
+BEGIN
+    IF to_regclass(''refresh_tokens_unpartitioned'') IS NOT NULL THEN
+        INSERT INTO refresh_tokens (id, token_hash, user_id, expires_at, is_revoked, created_at)
+        SELECT id, token_hash, user_id, expires_at, is_revoked, created_at
+        FROM refresh_tokens_unpartitioned
+        WHERE expires_at > LOCALTIMESTAMP AND expires_at < CURRENT_DATE + 15
+          AND is_revoked = false AND token_hash IS NOT NULL;
+        PERFORM setval(pg_get_serial_sequence(''refresh_tokens'', ''id''),
+                       GREATEST((SELECT max(id) FROM refresh_tokens_unpartitioned), 1));
+        DROP TABLE refresh_tokens_unpartitioned;
+    END IF;
+END';
+
+-- Tokens carry the owner's email (the users partition key) so refresh touches a single users partition
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS user_email VARCHAR(255);
+UPDATE refresh_tokens t SET user_email = u.email
+FROM users u
+WHERE t.user_email IS NULL AND u.id = t.user_id;
@@ -0,0 +1,14 @@
+-- Transactional outbox: written in the same transaction as the change it describes,
+-- relayed to Kafka by OutboxRelay
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(100) NOT NULL,
+    message_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    claimed_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox (id) WHERE sent_at IS NULL;
@@ -0,0 +1,10 @@
+-- attempts counts claims (publish tries) and no longer caps retries; failures counts rows that
+-- could not be published at all (unknown type, undecodable payload). A row that reaches
+-- auth.outbox.max-failures is set aside with dead_at and is no longer claimed
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS failures INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS last_error VARCHAR(500);
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS dead_at TIMESTAMP;
+
+DROP INDEX IF EXISTS idx_outbox_pending;
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox (id) WHERE sent_at IS NULL AND dead_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_dead ON outbox (dead_at) WHERE dead_at IS NOT NULL;